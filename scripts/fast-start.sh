@@ -0,0 +1,43 @@
+#!/bin/sh
+# Arranque rápido de ClientsBatchApplication: beans generados por Spring AOT y archivo AppCDS con las
+# clases del arranque y del primer chunk, producido por una ejecución de entrenamiento.
+#
+#   scripts/fast-start.sh train [args]   compila con -Pfast-start y genera target/app.jsa
+#   scripts/fast-start.sh [args]         ejecuta el job con AOT y el archivo CDS
+#
+# El entrenamiento ejecuta el job en seco (batch.simulation.dry-run=true) sobre el clients.csv del
+# classpath y deja el reporte en target/fast-start-training: no llama a las APIs de clientes y préstamos,
+# así que no crea clientes ni préstamos reales. Lo que no se carga en seco (RestTemplate y Jackson de las
+# llamadas) lo carga la JVM como siempre en la primera fila real.
+#
+# AOT fija en la compilación los beans condicionales (@ConditionalOnProperty): el jar de -Pfast-start
+# solo sirve para el job normal. Los modos servidor (batch.server.enabled) y worker remoto
+# (batch.remote.role=WORKER) no se pueden activar en ejecución con este jar: usar el jar normal.
+#
+# Las dos ejecuciones registran el tiempo hasta la primera fila (batch.startup.timing.enabled) para
+# comparar con el arranque normal (java -jar sobre el jar de Spring Boot).
+set -e
+cd "$(dirname "$0")/.."
+
+JAR=target/clients-batch-0.0.1-SNAPSHOT.jar
+ARCHIVE=target/app.jsa
+JVM_OPTS="-Dspring.aot.enabled=true -Dbatch.startup.timing.enabled=true"
+
+if [ "$1" = "train" ]; then
+    shift
+    mvn -B -Pfast-start -DskipTests package
+    mkdir -p target/fast-start-training
+    # El archivo se escribe al salir la JVM; un entrenamiento fallido se informa en lugar de ocultarse
+    if ! java -XX:ArchiveClassesAtExit="$ARCHIVE" $JVM_OPTS -Dbatch.simulation.dry-run=true \
+            -jar "$JAR" outputDir=target/fast-start-training "$@"; then
+        echo "El entrenamiento terminó con error: revisa la salida antes de usar $ARCHIVE" >&2
+        exit 1
+    fi
+    exit 0
+fi
+
+if [ ! -f "$ARCHIVE" ]; then
+    echo "Falta $ARCHIVE: ejecuta primero scripts/fast-start.sh train" >&2
+    exit 1
+fi
+exec java -XX:SharedArchiveFile="$ARCHIVE" $JVM_OPTS -jar "$JAR" "$@"
@@ -0,0 +1,237 @@
+package com.inetum.clientsbatch.chunk;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ Tamaño de chunk adaptativo. Cada chunk empieza con el tamaño objetivo actual y, al terminar, se ajusta
+ según lo medido en ese chunk:
+  - tasa de errores por encima del umbral: se reduce a la mitad (los rollbacks afectan a menos filas).
+    ClientItemProcessor captura sus fallos y devuelve null, así que no llegan a onProcessError: los anota
+    con itemFailed(), que los suma al chunk en curso del mismo hilo;
+  - chunk más largo que maxChunkDuration: se reduce en proporción para volver a entrar en el límite;
+  - coste fijo del chunk (lectura, escritura, commit y metadatos del JobRepository, es decir, todo lo que
+    no es processor) por encima de targetOverhead: se duplica, sin pasar del tamaño que cabe en
+    maxChunkDuration con la latencia por fila observada.
+ Siempre dentro de [minSize, maxSize]. El tamaño objetivo se publica en el gauge clients.batch.chunk.size
+ y el número de filas de cada chunk confirmado en clients.batch.chunk.items.
+
+ Se registra en el step como CompletionPolicy, ChunkListener, ItemProcessListener e ItemStream. Las
+ mediciones se llevan por hilo, así que también sirve en steps multihilo o particionados. Las métricas se
+ registran en open() y se quitan en close() del último step que las usa: en modo servidor cada job
+ construye su política y el gauge no se queda enganchado al contador de la primera.
+*/
+public class AdaptiveChunkCompletionPolicy implements CompletionPolicy, ChunkListener,
+        ItemProcessListener<Object, Object>, ItemStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveChunkCompletionPolicy.class);
+
+    private final int minSize;
+    private final int maxSize;
+    private final double targetOverhead;
+    private final long maxChunkNanos;
+    private final double maxErrorRate;
+    private final AtomicInteger size;
+    private final ThreadLocal<ChunkStats> stats = ThreadLocal.withInitial(ChunkStats::new);
+    private final String stepName;
+    private int openSteps;
+    private Gauge sizeGauge;
+    private DistributionSummary chunkItems;
+
+    // Chunk en curso del hilo, sea de la política que sea, para itemFailed()
+    private static final ThreadLocal<ChunkStats> CURRENT = new ThreadLocal<>();
+
+    // Mediciones del chunk en curso de un hilo
+    private static final class ChunkStats {
+        private long startNanos;
+        private long processStartNanos;
+        private long processNanos;
+        private int items;
+        private int errors;
+
+        private void reset(long now) {
+            startNanos = now;
+            processNanos = 0;
+            items = 0;
+            errors = 0;
+        }
+    }
+
+    // Contexto de repetición que recuerda el tamaño objetivo con el que empezó el chunk
+    private static final class SizedContext extends RepeatContextSupport {
+        private final int limit;
+
+        private SizedContext(RepeatContext parent, int limit) {
+            super(parent);
+            this.limit = limit;
+        }
+    }
+
+    public AdaptiveChunkCompletionPolicy(String stepName, int initialSize, int minSize, int maxSize,
+                                         double targetOverhead, long maxChunkDurationMillis, double maxErrorRate) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Límites de chunk inválidos: [" + minSize + ", " + maxSize + "]");
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetOverhead = targetOverhead;
+        this.maxChunkNanos = TimeUnit.MILLISECONDS.toNanos(maxChunkDurationMillis);
+        this.maxErrorRate = maxErrorRate;
+        this.size = new AtomicInteger(clamp(initialSize));
+        this.stepName = stepName;
+    }
+
+    // Anota un fallo en el chunk en curso del hilo; sin chunk adaptativo en curso no hace nada
+    public static void itemFailed() {
+        ChunkStats chunk = CURRENT.get();
+        if (chunk != null) {
+            chunk.errors++;
+        }
+    }
+
+    private int clamp(int value) {
+        return Math.max(minSize, Math.min(maxSize, value));
+    }
+
+    public int getChunkSize() {
+        return size.get();
+    }
+
+    // --- CompletionPolicy ---
+
+    @Override
+    public RepeatContext start(RepeatContext parent) {
+        return new SizedContext(parent, size.get());
+    }
+
+    @Override
+    public void update(RepeatContext context) {
+        ((RepeatContextSupport) context).increment();
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        return context.getStartedCount() >= ((SizedContext) context).limit;
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context, RepeatStatus result) {
+        return result == null || !result.isContinuable() || isComplete(context);
+    }
+
+    // --- Mediciones ---
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        ChunkStats chunk = stats.get();
+        chunk.reset(System.nanoTime());
+        CURRENT.set(chunk);
+    }
+
+    @Override
+    public void beforeProcess(Object item) {
+        stats.get().processStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void afterProcess(Object item, Object result) {
+        ChunkStats chunk = stats.get();
+        chunk.processNanos += System.nanoTime() - chunk.processStartNanos;
+        chunk.items++;
+    }
+
+    @Override
+    public void onProcessError(Object item, Exception e) {
+        ChunkStats chunk = stats.get();
+        chunk.processNanos += System.nanoTime() - chunk.processStartNanos;
+        chunk.items++;
+        chunk.errors++;
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        ChunkStats chunk = stats.get();
+        CURRENT.remove();
+        if (chunk.items > 0 && chunkItems != null) {
+            chunkItems.record(chunk.items);
+        }
+        adapt(chunk.items, System.nanoTime() - chunk.startNanos, chunk.processNanos, chunk.errors);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        ChunkStats chunk = stats.get();
+        CURRENT.remove();
+        // El chunk entero se ha deshecho: cuenta como error aunque no haya fallado el processor
+        adapt(Math.max(1, chunk.items), System.nanoTime() - chunk.startNanos, chunk.processNanos,
+                Math.max(1, chunk.errors));
+    }
+
+    // Calcula el siguiente tamaño objetivo a partir de un chunk terminado
+    void adapt(int items, long chunkNanos, long processNanos, int errors) {
+        if (items == 0 || chunkNanos <= 0) {
+            return;
+        }
+        int current = size.get();
+        int next = current;
+        if ((double) errors / items > maxErrorRate) {
+            next = current / 2;
+        } else if (chunkNanos > maxChunkNanos) {
+            next = (int) Math.max(current / 2, (long) current * maxChunkNanos / chunkNanos);
+        } else {
+            double overhead = (double) (chunkNanos - processNanos) / chunkNanos;
+            if (overhead > targetOverhead) {
+                long perItemNanos = Math.max(1, chunkNanos / items);
+                next = (int) Math.min((long) current * 2, Math.max(current, maxChunkNanos / perItemNanos));
+            }
+        }
+        next = clamp(next);
+        if (next != current && size.compareAndSet(current, next)) {
+            logger.debug("Chunk adaptativo: {} -> {} (filas: {}, {} ms, errores: {})", current, next, items,
+                    TimeUnit.NANOSECONDS.toMillis(chunkNanos), errors);
+        }
+    }
+
+    // --- Métricas: un mismo step puede abrirse a la vez en varias particiones ---
+
+    @Override
+    public synchronized void open(ExecutionContext executionContext) {
+        if (openSteps++ > 0) {
+            return;
+        }
+        sizeGauge = Gauge.builder("clients.batch.chunk.size", size, AtomicInteger::get)
+                .description("Tamaño objetivo del chunk adaptativo")
+                .tag("step", stepName)
+                .register(Metrics.globalRegistry);
+        chunkItems = DistributionSummary.builder("clients.batch.chunk.items")
+                .description("Filas procesadas por chunk confirmado")
+                .tag("step", stepName)
+                .register(Metrics.globalRegistry);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (openSteps == 0 || --openSteps > 0) {
+            return;
+        }
+        Metrics.globalRegistry.remove(sizeGauge);
+        Metrics.globalRegistry.remove(chunkItems);
+        sizeGauge = null;
+        chunkItems = null;
+    }
+}
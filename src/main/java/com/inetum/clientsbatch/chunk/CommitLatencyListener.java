@@ -0,0 +1,106 @@
+package com.inetum.clientsbatch.chunk;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ Mide lo que cuesta el JobRepository, para comparar el modo MySQL con el embebido (perfil embedded):
+  - arranque: tiempo desde que arranca la JVM hasta que empieza el job (contexto, datasource y esquema);
+  - commit de cada chunk: desde que termina el writer hasta afterChunk, es decir, el update de los streams,
+    la escritura del contexto y de la StepExecution en el repositorio y el commit de la transacción.
+ El commit se publica en el timer clients.batch.chunk.commit y al final de cada step se registra la media
+ y el máximo. Las mediciones se llevan por hilo, así que sirve en steps multihilo o particionados.
+*/
+public class CommitLatencyListener implements JobExecutionListener, StepExecutionListener, ChunkListener,
+        ItemWriteListener<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommitLatencyListener.class);
+
+    private final ThreadLocal<Long> writtenAt = new ThreadLocal<>();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder commitNanos = new LongAdder();
+    private final AtomicLong maxCommitNanos = new AtomicLong();
+    private final Timer commitTimer = Timer.builder("clients.batch.chunk.commit")
+            .description("Escritura de metadatos en el JobRepository y commit de cada chunk")
+            .register(Metrics.globalRegistry);
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        logger.info("Arranque hasta el inicio del job: {} ms", ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        commits.reset();
+        commitNanos.reset();
+        maxCommitNanos.set(0);
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        writtenAt.remove();
+    }
+
+    @Override
+    public void afterWrite(Chunk<?> items) {
+        writtenAt.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        Long start = writtenAt.get();
+        if (start == null) {
+            return;
+        }
+        writtenAt.remove();
+        record(System.nanoTime() - start);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        writtenAt.remove();
+    }
+
+    void record(long nanos) {
+        commits.increment();
+        commitNanos.add(nanos);
+        maxCommitNanos.accumulateAndGet(nanos, Math::max);
+        commitTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        long count = commits.sum();
+        if (count > 0) {
+            logger.info("Commit de chunk en {}: {} commits, media {} ms, máximo {} ms", stepExecution.getStepName(),
+                    count, String.format("%.2f", getAverageCommitMillis()),
+                    String.format("%.2f", maxCommitNanos.get() / 1_000_000.0));
+        }
+        return null;
+    }
+
+    public long getCommitCount() {
+        return commits.sum();
+    }
+
+    public double getAverageCommitMillis() {
+        long count = commits.sum();
+        return count == 0 ? 0 : commitNanos.sum() / (count * 1_000_000.0);
+    }
+}
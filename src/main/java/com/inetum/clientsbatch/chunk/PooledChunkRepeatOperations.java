@@ -0,0 +1,87 @@
+package com.inetum.clientsbatch.chunk;
+
+import org.springframework.batch.repeat.RepeatCallback;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatException;
+import org.springframework.batch.repeat.RepeatOperations;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.repeat.support.RepeatSynchronizationManager;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ Bucle de chunks de un step multihilo sin throttleLimit (obsoleto y marcado para eliminar en Spring
+ Batch 5). Lanza un bucle por hilo del pool y cada bucle encadena chunks hasta que el reader se agota:
+ la concurrencia la fija el tamaño del pool, un chunk en curso por hilo, sin cola de tareas pendientes.
+
+ Si un chunk falla, los demás bucles terminan su chunk actual y no empiezan otro; el primer error se
+ relanza al step, como hace TaskExecutorRepeatTemplate.
+*/
+public class PooledChunkRepeatOperations implements RepeatOperations {
+
+    private final AsyncTaskExecutor taskExecutor;
+    private final int threads;
+
+    public PooledChunkRepeatOperations(AsyncTaskExecutor taskExecutor, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("El número de hilos debe ser mayor que 0");
+        }
+        this.taskExecutor = taskExecutor;
+        this.threads = threads;
+    }
+
+    @Override
+    public RepeatStatus iterate(RepeatCallback callback) throws RepeatException {
+        RepeatContext context = new RepeatContextSupport(RepeatSynchronizationManager.getContext());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Future<?>> loops = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            loops.add(taskExecutor.submit(() -> loop(callback, context, failure)));
+        }
+        for (Future<?> loop : loops) {
+            try {
+                loop.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                context.setTerminateOnly();
+                failure.compareAndSet(null, e);
+            } catch (ExecutionException e) {
+                failure.compareAndSet(null, e.getCause());
+            }
+        }
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (error instanceof Error fatal) {
+            throw fatal;
+        }
+        if (error != null) {
+            throw new RepeatException("Fallo en el bucle de chunks", error);
+        }
+        return RepeatStatus.FINISHED;
+    }
+
+    private static void loop(RepeatCallback callback, RepeatContext context, AtomicReference<Throwable> failure) {
+        RepeatSynchronizationManager.register(context);
+        try {
+            while (!context.isCompleteOnly() && !context.isTerminateOnly()) {
+                RepeatStatus status = callback.doInIteration(context);
+                if (status == null || !status.isContinuable()) {
+                    context.setCompleteOnly();
+                }
+            }
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+            context.setTerminateOnly();
+        } finally {
+            RepeatSynchronizationManager.clear();
+        }
+    }
+}
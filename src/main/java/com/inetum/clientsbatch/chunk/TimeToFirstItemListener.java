@@ -0,0 +1,51 @@
+package com.inetum.clientsbatch.chunk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ Tiempo hasta la primera fila leída, la métrica del arranque rápido (AOT + AppCDS): desde que arrancó la
+ JVM y desde que empezó el step. Solo el primer read() de cada step hace algo más que leer un booleano.
+*/
+public class TimeToFirstItemListener implements StepExecutionListener, ItemReadListener<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimeToFirstItemListener.class);
+
+    private final AtomicBoolean first = new AtomicBoolean();
+    private volatile long stepStartNanos;
+    private volatile long uptimeMillis = -1;
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        stepStartNanos = System.nanoTime();
+        first.set(true);
+    }
+
+    @Override
+    public void afterRead(Object item) {
+        if (first.get() && first.compareAndSet(true, false)) {
+            uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+            logger.info("Primera fila leída a los {} ms del arranque de la JVM ({} ms desde el inicio del step)",
+                    uptimeMillis, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stepStartNanos));
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        first.set(false);
+        return null;
+    }
+
+    // Milisegundos desde el arranque de la JVM hasta la última primera fila medida, o -1 si no hubo ninguna
+    public long getTimeToFirstItemMillis() {
+        return uptimeMillis;
+    }
+}
@@ -1,54 +1,966 @@
 package com.inetum.clientsbatch.config;
 
+import com.inetum.clientsbatch.chunk.AdaptiveChunkCompletionPolicy;
+import com.inetum.clientsbatch.chunk.CommitLatencyListener;
+import com.inetum.clientsbatch.chunk.PooledChunkRepeatOperations;
+import com.inetum.clientsbatch.chunk.TimeToFirstItemListener;
 import com.inetum.clientsbatch.dto.Data;
+import com.inetum.clientsbatch.index.UnchangedRowFilter;
 import com.inetum.clientsbatch.processor.ClientItemProcessor;
+import com.inetum.clientsbatch.processor.ItemLogSampler;
+import com.inetum.clientsbatch.processor.ProgressReporter;
+import com.inetum.clientsbatch.processor.WarmUpListener;
 import com.inetum.clientsbatch.reader.ClientFileReader;
+import com.inetum.clientsbatch.reader.ClientFileReaderParquet;
+import com.inetum.clientsbatch.reader.LineRangePartitioner;
+import com.inetum.clientsbatch.reader.PrefetchingItemReader;
+import com.inetum.clientsbatch.reader.SynchronizedItemReader;
+import com.inetum.clientsbatch.remote.ChunkChannelType;
+import com.inetum.clientsbatch.remote.ChunkWorker;
+import com.inetum.clientsbatch.remote.InMemoryChunkChannel;
+import com.inetum.clientsbatch.remote.RemoteChunkItemWriter;
+import com.inetum.clientsbatch.remote.RemoteReportTasklet;
+import com.inetum.clientsbatch.remote.RemoteRole;
+import com.inetum.clientsbatch.remote.SocketChunkChannel;
+import com.inetum.clientsbatch.remote.SocketChunkWorkerChannel;
+import com.inetum.clientsbatch.server.InboxJobServer;
+import com.inetum.clientsbatch.simulation.AffordabilityPreFilter;
+import com.inetum.clientsbatch.simulation.AmortizationEngine;
+import com.inetum.clientsbatch.simulation.DryRunSimulationListener;
+import com.inetum.clientsbatch.validator.ClientDataValidator;
+import com.inetum.clientsbatch.validator.ClientValidationProcessor;
+import com.inetum.clientsbatch.writer.FsyncPolicy;
+import com.inetum.clientsbatch.writer.JdbcLoanResultWriter;
+import com.inetum.clientsbatch.writer.LoanStatisticsWriter;
+import com.inetum.clientsbatch.writer.ParquetReportWriter;
+import com.inetum.clientsbatch.writer.RejectedRowWriter;
+import com.inetum.clientsbatch.writer.ReportMergeTasklet;
+import com.inetum.clientsbatch.writer.ReportSortKey;
 import com.inetum.clientsbatch.writer.ReportWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.FlowBuilder;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.job.flow.support.SimpleFlow;
+import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.support.CompositeItemWriter;
+import org.springframework.batch.item.support.CompositeItemProcessor;
+import org.springframework.batch.item.support.SynchronizedItemStreamWriter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class BatchConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(BatchConfig.class);
+    private static final String WORKER_STEP = "workerStep";
+    private static final String SOURCE_STEP = "sourceStep";
+    private static final String DEFAULT_REPORT_NAME = "report.txt";
+    private static final String DEFAULT_INPUT = "clients.csv";
+    private static final String DEFAULT_PARQUET_INPUT = "clients.parquet";
+
     private final ClientFileReader clientFileReader;
+    private final ObjectProvider<ClientFileReaderParquet> clientFileReaderParquet;
+    private final DataSource dataSource;
+
+    @Value("${batch.chunk.size:5}")
+    private int chunkSize;
+
+    @Value("${batch.chunk.adaptive.enabled:false}")
+    private boolean adaptiveChunkEnabled;
+
+    @Value("${batch.chunk.adaptive.min-size:5}")
+    private int adaptiveChunkMin;
+
+    @Value("${batch.chunk.adaptive.max-size:500}")
+    private int adaptiveChunkMax;
+
+    @Value("${batch.chunk.adaptive.target-overhead:0.1}")
+    private double adaptiveChunkTargetOverhead;
+
+    @Value("${batch.chunk.adaptive.max-duration-ms:5000}")
+    private long adaptiveChunkMaxDurationMs;
+
+    @Value("${batch.chunk.adaptive.max-error-rate:0.05}")
+    private double adaptiveChunkMaxErrorRate;
+
+    @Value("${batch.repository.timing.enabled:false}")
+    private boolean repositoryTimingEnabled;
+
+    @Value("${batch.startup.timing.enabled:false}")
+    private boolean startupTimingEnabled;
+
+    @Value("${batch.warmup.enabled:false}")
+    private boolean warmUpEnabled;
+
+    @Value("${batch.warmup.connections-per-endpoint:5}")
+    private int warmUpConnections;
+
+    @Value("${batch.warmup.iterations:2000}")
+    private int warmUpIterations;
+
+    @Value("${batch.warmup.health-path:}")
+    private String warmUpHealthPath;
+
+    @Value("${batch.warmup.health-timeout-ms:0}")
+    private long warmUpHealthTimeoutMs;
+
+    @Value("${batch.logging.items-per-second:-1}")
+    private int itemLogsPerSecond;
+
+    @Value("${batch.logging.progress-interval-ms:0}")
+    private long progressIntervalMs;
+
+    @Value("${batch.simulation.dry-run:false}")
+    private boolean dryRun;
+
+    @Value("${batch.simulation.max-payment-to-income:0.4}")
+    private double simulationMaxPaymentToIncome;
+
+    @Value("${batch.simulation.prefilter.enabled:false}")
+    private boolean preFilterEnabled;
+
+    @Value("${batch.simulation.prefilter.max-payment-to-income:1.0}")
+    private double preFilterMaxPaymentToIncome;
+
+    @Value("${batch.reader.prefetch.enabled:false}")
+    private boolean prefetchEnabled;
+
+    @Value("${batch.reader.prefetch.queue-capacity:100}")
+    private int prefetchQueueCapacity;
+
+    @Value("${batch.step.threads:1}")
+    private int stepThreads;
+
+    @Value("${batch.report.concurrent:false}")
+    private boolean reportConcurrent;
+
+    @Value("${batch.report.sort-key:NONE}")
+    private ReportSortKey reportSortKey;
+
+    @Value("${batch.report.sort-memory-mb:64}")
+    private long reportSortMemoryMb;
+
+    @Value("${batch.report.fsync:AT_END}")
+    private FsyncPolicy reportFsyncPolicy;
+
+    @Value("${batch.report.stats.enabled:false}")
+    private boolean statsEnabled;
+
+    @Value("${batch.report.stats.file:report-stats.txt}")
+    private String statsFile;
+
+    @Value("${batch.partition.enabled:false}")
+    private boolean partitionEnabled;
+
+    @Value("${batch.partition.grid-size:4}")
+    private int partitionGridSize;
+
+    @Value("${batch.validation.enabled:true}")
+    private boolean validationEnabled;
+
+    @Value("${batch.validation.rejected-file:rejected.txt}")
+    private String rejectedFile;
+
+    @Value("${batch.incremental.enabled:false}")
+    private boolean incrementalEnabled;
+
+    @Value("${batch.incremental.index-file:fingerprints.idx}")
+    private String incrementalIndexFile;
+
+    @Value("${batch.incremental.initial-capacity:1024}")
+    private int incrementalInitialCapacity;
+
+    @Value("${batch.output.parquet.enabled:false}")
+    private boolean parquetEnabled;
+
+    @Value("${batch.output.parquet.file:loans.parquet}")
+    private String parquetFile;
+
+    @Value("${batch.output.parquet.compression:SNAPPY}")
+    private CompressionCodecName parquetCompression;
+
+    @Value("${batch.output.parquet.row-group-size:134217728}")
+    private long parquetRowGroupSize;
+
+    @Value("${batch.output.parquet.include-rejected:false}")
+    private boolean parquetIncludeRejected;
+
+    @Value("${batch.output.jdbc.enabled:false}")
+    private boolean jdbcEnabled;
+
+    @Value("${batch.output.jdbc.batch-size:500}")
+    private int jdbcBatchSize;
+
+    @Value("${batch.output.jdbc.multi-row:true}")
+    private boolean jdbcMultiRow;
 
-    public BatchConfig(ClientFileReader clientFileReader) {
+    @Value("${batch.output.jdbc.initialize-schema:true}")
+    private boolean jdbcInitializeSchema;
+
+    @Value("${batch.remote.role:NONE}")
+    private RemoteRole remoteRole;
+
+    @Value("${batch.remote.channel:IN_MEMORY}")
+    private ChunkChannelType remoteChannel;
+
+    @Value("${batch.remote.workers:2}")
+    private int remoteWorkers;
+
+    @Value("${batch.remote.worker.threads:1}")
+    private int remoteWorkerThreads;
+
+    @Value("${batch.remote.worker.id:}")
+    private String remoteWorkerId;
+
+    @Value("${batch.remote.host:localhost}")
+    private String remoteHost;
+
+    @Value("${batch.remote.port:9090}")
+    private int remotePort;
+
+    @Value("${batch.remote.max-in-flight-per-worker:2}")
+    private int remoteMaxInFlight;
+
+    @Value("${batch.remote.connect-timeout-ms:60000}")
+    private long remoteConnectTimeoutMs;
+
+    @Value("${batch.remote.response-timeout-ms:300000}")
+    private long remoteResponseTimeoutMs;
+
+    @Value("${batch.remote.segment-dir:}")
+    private String remoteSegmentDir;
+
+    @Value("${batch.split.enabled:false}")
+    private boolean splitEnabled;
+
+    @Value("${batch.split.threads-per-source:1}")
+    private int splitThreadsPerSource;
+
+    @Value("${batch.server.enabled:false}")
+    private boolean serverEnabled;
+
+    @Value("${batch.server.inbox-dir:inbox}")
+    private String serverInboxDir;
+
+    @Value("${batch.server.output-dir:outbox}")
+    private String serverOutputDir;
+
+    @Value("${batch.server.file-pattern:*.csv}")
+    private String serverFilePattern;
+
+    @Value("${batch.server.parallelism:1}")
+    private int serverParallelism;
+
+    @Value("${batch.server.settle-ms:500}")
+    private long serverSettleMs;
+
+    public BatchConfig(ClientFileReader clientFileReader,
+                       ObjectProvider<ClientFileReaderParquet> clientFileReaderParquet, DataSource dataSource) {
         this.clientFileReader = clientFileReader;
+        // El componente Parquet es perezoso: solo se crea si el split lo necesita
+        this.clientFileReaderParquet = clientFileReaderParquet;
+        this.dataSource = dataSource;
+    }
+
+    // Fichero de entrada: parámetro del job inputFile (modo servidor) o el clients.csv del classpath
+    static Resource inputResource(String inputFile) {
+        return inputFile == null || inputFile.isBlank()
+                ? new ClassPathResource(DEFAULT_INPUT) : new FileSystemResource(inputFile);
+    }
+
+    /*
+     Fuente Parquet del split: junto a un inputFile se busca el fichero con el mismo nombre y extensión
+     .parquet (entrada.csv -> entrada.parquet); sin inputFile, el clients.parquet del classpath.
+    */
+    static Resource parquetInputResource(Resource input) {
+        if (!(input instanceof FileSystemResource file)) {
+            return new ClassPathResource(DEFAULT_PARQUET_INPUT);
+        }
+        String name = file.getFilename();
+        int dot = name.lastIndexOf('.');
+        return new FileSystemResource(file.getFile().toPath()
+                .resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".parquet"));
+    }
+
+    ItemReader<Data> reader(Resource input) {
+        return reader(input, true);
+    }
+
+    // Con saveState false ningún reader de la cadena guarda su posición: el step no es reanudable
+    ItemReader<Data> reader(Resource input, boolean saveState) {
+        FlatFileItemReader<Data> fileReader = clientFileReader.clientItemReader(input);
+        fileReader.setSaveState(saveState);
+        ItemReader<Data> reader = fileReader;
+        if (prefetchEnabled) {
+            // La lectura del fichero se solapa con las llamadas a la API del processor
+            PrefetchingItemReader<Data> prefetching =
+                    new PrefetchingItemReader<>(reader, prefetchQueueCapacity, "clientItemReader");
+            prefetching.setSaveState(saveState);
+            reader = prefetching;
+        }
+        if (multiThreaded()) {
+            // Varios hilos llaman a read() a la vez: lectura serializada (el step multihilo no es reiniciable)
+            return new SynchronizedItemReader<>(reader, "clientItemReader");
+        }
+        return reader;
     }
 
     @Bean
     ClientItemProcessor processor() {
-        return new ClientItemProcessor();
+        ClientItemProcessor processor = new ClientItemProcessor();
+        // Fallos de la API y simulaciones no aprobadas van al mismo informe que los rechazos de validación
+        processor.setFailureWriter(rejectedRowWriter());
+        if (itemLogsPerSecond >= 0) {
+            processor.setItemLogSampler(new ItemLogSampler(itemLogsPerSecond));
+        }
+        if (progressIntervalMs > 0) {
+            processor.setProgressReporter(progressReporter());
+        }
+        return processor;
+    }
+
+    @Bean
+    ProgressReporter progressReporter() {
+        return new ProgressReporter(progressIntervalMs > 0 ? progressIntervalMs : 1);
+    }
+
+    @Bean
+    WarmUpListener warmUpListener() {
+        return new WarmUpListener(processor(), clientFileReader, warmUpConnections, warmUpIterations,
+                warmUpHealthPath, warmUpHealthTimeoutMs);
     }
 
     @Bean
+    DryRunSimulationListener dryRunSimulationListener() {
+        return new DryRunSimulationListener(new AmortizationEngine(simulationMaxPaymentToIncome));
+    }
+
+    @Bean
+    RejectedRowWriter rejectedRowWriter() {
+        return new RejectedRowWriter(rejectedFile);
+    }
+
+    @Bean
+    UnchangedRowFilter unchangedRowFilter() {
+        return new UnchangedRowFilter(incrementalIndexFile, incrementalInitialCapacity);
+    }
+
+    /*
+     Cadena de etapas del processor. El filtro incremental solo entra en el step normal (incremental = true),
+     que es el único que lo registra como stream y listener; en los steps de partición, split y workers
+     remotos su índice no se abriría.
+    */
+    ItemProcessor<Data, Data> itemProcessor(boolean incremental) {
+        List<ItemProcessor<Data, Data>> stages = new ArrayList<>();
+        if (incremental && incrementalEnabled) {
+            // Las filas que ya generaron préstamo en una ejecución anterior no se reprocesan
+            stages.add(unchangedRowFilter());
+        }
+        if (validationEnabled) {
+            // Las filas inválidas se descartan antes de cualquier llamada a la API
+            stages.add(new ClientValidationProcessor(new ClientDataValidator(), rejectedRowWriter()));
+        }
+        if (preFilterEnabled) {
+            // Las solicitudes con una cuota claramente inasumible no llegan a la API de simulación
+            stages.add(new AffordabilityPreFilter(new AmortizationEngine(preFilterMaxPaymentToIncome),
+                    rejectedRowWriter()));
+        }
+        if (dryRun) {
+            // Sin llamadas a la API: cada chunk lo simula en local dryRunSimulationListener antes del writer
+            if (stages.isEmpty()) {
+                return item -> item;
+            }
+            return stages.size() == 1 ? stages.get(0) : new CompositeItemProcessor<>(stages);
+        }
+        if (stages.isEmpty()) {
+            return processor();
+        }
+        stages.add(processor());
+        return new CompositeItemProcessor<>(stages);
+    }
+
+    // Directorio y nombre del reporte: parámetros del job outputDir y reportName (por defecto ./report.txt)
+    static String reportPath(String outputDir, String reportName) {
+        String name = reportName == null || reportName.isBlank() ? DEFAULT_REPORT_NAME : reportName;
+        return outputDir == null || outputDir.isBlank() ? name : Path.of(outputDir, name).toString();
+    }
+
+    @Bean
+    @StepScope
+    ReportWriter writer(@Value("#{jobParameters['outputDir']}") String outputDir,
+                        @Value("#{jobParameters['reportName']}") String reportName) {
+        // En el step multihilo cada hilo escribe su propio segmento (modo concurrente obligatorio)
+        ReportWriter writer = new ReportWriter(reportPath(outputDir, reportName),
+                reportConcurrent || multiThreaded(), reportSortKey,
+                reportSortMemoryMb * 1024 * 1024);
+        writer.setFsyncPolicy(reportFsyncPolicy);
+        return writer;
+    }
+
     ReportWriter writer() {
-        return new ReportWriter();
+        return writer(null, null);
+    }
+
+    // Perezoso: sin salida Parquet no se inicializa el writer ni la configuración de Hadoop
+    @Lazy
+    @Bean
+    ParquetReportWriter parquetReportWriter() {
+        return new ParquetReportWriter(parquetFile, parquetCompression, parquetRowGroupSize, parquetIncludeRejected);
+    }
+
+    @Bean
+    JdbcLoanResultWriter jdbcLoanResultWriter() {
+        return new JdbcLoanResultWriter(dataSource, jdbcBatchSize, jdbcMultiRow, jdbcInitializeSchema);
+    }
+
+    @Bean
+    LoanStatisticsWriter loanStatisticsWriter() {
+        return new LoanStatisticsWriter(statsFile);
+    }
+
+    List<ItemWriter<? super Data>> writerDelegates() {
+        List<ItemWriter<? super Data>> delegates = new ArrayList<>();
+        delegates.add(writer());
+        if (parquetEnabled) {
+            delegates.add(parquetReportWriter());
+        }
+        if (jdbcEnabled) {
+            delegates.add(jdbcLoanResultWriter());
+        }
+        if (statsEnabled) {
+            delegates.add(loanStatisticsWriter());
+        }
+        return delegates;
+    }
+
+    ItemWriter<Data> itemWriter(List<ItemWriter<? super Data>> delegates) {
+        if (delegates.size() == 1) {
+            return writer();
+        }
+        return compositeWriter(delegates);
+    }
+
+    /*
+     El reporte ordenado no guarda estado de reinicio: las filas ya volcadas a runs no se recuperan al
+     reanudar. Lo mismo el concurrente, que el step multihilo activa siempre, porque ordena sus segmentos
+     igual. La salida Parquet tampoco puede reanudarse: un fichero Parquet cerrado no admite más filas. En
+     esos modos el reader del step normal no guarda posición y el job no admite reinicio, en lugar de
+     reanudar tras filas que no llegarían a la salida.
+    */
+    boolean plainStepRestartable() {
+        return reportSortKey == ReportSortKey.NONE && !reportConcurrent && !multiThreaded() && !parquetEnabled;
+    }
+
+    boolean multiThreaded() {
+        return stepThreads > 1 && !partitionEnabled && !splitEnabled && remoteRole == RemoteRole.NONE;
+    }
+
+    // Pool de tamaño fijo para un step multihilo: un bucle de chunks por hilo (PooledChunkRepeatOperations)
+    private ThreadPoolTaskExecutor stepTaskExecutor(String threadNamePrefix, int threads) {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(threads);
+        taskExecutor.setMaxPoolSize(threads);
+        taskExecutor.setThreadNamePrefix(threadNamePrefix);
+        taskExecutor.setDaemon(true);
+        taskExecutor.initialize();
+        return taskExecutor;
+    }
+
+    @Bean
+    CommitLatencyListener commitLatencyListener() {
+        return new CommitLatencyListener();
+    }
+
+    @Bean
+    TimeToFirstItemListener timeToFirstItemListener() {
+        return new TimeToFirstItemListener();
+    }
+
+    // Chunk de tamaño fijo (batch.chunk.size) o adaptativo si batch.chunk.adaptive.enabled
+    private SimpleStepBuilder<Data, Data> chunkStep(String name, JobRepository jobRepository,
+                                                    PlatformTransactionManager platformTransactionManager) {
+        StepBuilder stepBuilder = new StepBuilder(name, jobRepository);
+        SimpleStepBuilder<Data, Data> builder;
+        if (adaptiveChunkEnabled) {
+            AdaptiveChunkCompletionPolicy policy = new AdaptiveChunkCompletionPolicy(name, chunkSize,
+                    adaptiveChunkMin, adaptiveChunkMax, adaptiveChunkTargetOverhead, adaptiveChunkMaxDurationMs,
+                    adaptiveChunkMaxErrorRate);
+            builder = stepBuilder.chunk(policy, platformTransactionManager);
+            builder.listener((ChunkListener) policy);
+            builder.listener((ItemProcessListener<Object, Object>) policy);
+            builder.stream(policy);//registra sus métricas al abrir y las quita al cerrar
+        } else {
+            builder = stepBuilder.chunk(chunkSize, platformTransactionManager);
+        }
+        if (repositoryTimingEnabled) {
+            // Coste del JobRepository por chunk: para comparar MySQL con el perfil embedded
+            builder.listener((ChunkListener) commitLatencyListener());
+            builder.listener((StepExecutionListener) commitLatencyListener());
+            builder.listener((ItemWriteListener<Object>) commitLatencyListener());
+        }
+        if (startupTimingEnabled) {
+            // Tiempo hasta la primera fila: la medida del modo de arranque rápido (perfil Maven fast-start)
+            builder.listener((StepExecutionListener) timeToFirstItemListener());
+            builder.listener((ItemReadListener<Object>) timeToFirstItemListener());
+        }
+        if (dryRun) {
+            builder.listener((ItemWriteListener<Data>) dryRunSimulationListener());
+            builder.listener((StepExecutionListener) dryRunSimulationListener());
+        }
+        return builder;
     }
 
     @Bean
     public Step step(JobRepository jobRepository,
                      PlatformTransactionManager platformTransactionManager){
-        return new StepBuilder("step1",jobRepository)
-                .<Data, Data>chunk(5,platformTransactionManager)
-                .reader(clientFileReader.clientItemReader())//extrae los clientes del csv
-                .processor(processor())//procesa cada cliente enviandolo a la api
-                .writer(writer())//genera el reporte
+        return importStep(jobRepository, platformTransactionManager, inputResource(null));
+    }
+
+    Step importStep(JobRepository jobRepository, PlatformTransactionManager platformTransactionManager,
+                    Resource input) {
+        List<ItemWriter<? super Data>> writers = writerDelegates();
+        SimpleStepBuilder<Data, Data> builder = chunkStep("step1", jobRepository, platformTransactionManager)
+                .reader(reader(input, plainStepRestartable()))//extrae los clientes del csv
+                .processor(itemProcessor(true))//valida y procesa cada cliente enviandolo a la api
+                .writer(itemWriter(writers));//genera el reporte (y las salidas parquet/jdbc si están activas)
+        if (!serverEnabled) {
+            // En modo servidor el fichero de rechazados lo abre el servidor para todos los jobs
+            builder.stream(rejectedRowWriter());
+        }
+        if (writers.size() > 1) {
+            // Dentro del CompositeItemWriter los @BeforeStep/@AfterStep de cada writer no se registran solos
+            builder.listener(writer());
+            if (jdbcEnabled) {
+                builder.listener(jdbcLoanResultWriter());
+            }
+            if (statsEnabled) {
+                builder.listener(loanStatisticsWriter());
+            }
+            if (parquetEnabled) {
+                builder.listener(parquetReportWriter());
+            }
+        }
+        if (incrementalEnabled) {
+            builder.listener(unchangedRowFilter());
+            builder.stream(unchangedRowFilter());
+        }
+        if (multiThreaded()) {
+            // La concurrencia la limita el pool: un chunk en curso por hilo
+            logger.info("Step multihilo: {} hilos, un chunk en curso por hilo", stepThreads);
+            builder.stepOperations(new PooledChunkRepeatOperations(stepTaskExecutor("step1-", stepThreads),
+                    stepThreads));
+        } else if (stepThreads > 1) {
+            logger.warn("batch.step.threads no se aplica en los modos particionado, remoto y split "
+                    + "(se usan batch.partition.grid-size, batch.remote.workers y batch.split.threads-per-source)");
+        }
+        return builder.build();
+    }
+
+    // Reader de una partición: solo lee su rango de filas del CSV
+    @Bean
+    @StepScope
+    ItemStreamReader<Data> partitionReader(
+            @Value("#{stepExecutionContext['" + LineRangePartitioner.FIRST_ITEM_KEY + "']}") Integer firstItem,
+            @Value("#{stepExecutionContext['" + LineRangePartitioner.MAX_ITEM_KEY + "']}") Integer maxItem,
+            @Value("#{jobParameters['inputFile']}") String inputFile) {
+        FlatFileItemReader<Data> reader = clientFileReader.clientItemReader(inputResource(inputFile));
+        reader.setCurrentItemCount(firstItem);
+        reader.setMaxItemCount(maxItem);
+        return reader;
+    }
+
+    // Cada partición escribe su propio segmento del reporte
+    @Bean
+    @StepScope
+    ReportWriter segmentWriter(
+            @Value("#{stepExecutionContext['" + LineRangePartitioner.INDEX_KEY + "']}") Integer index,
+            @Value("#{jobParameters['outputDir']}") String outputDir,
+            @Value("#{jobParameters['reportName']}") String reportName) {
+        ReportWriter writer = ReportWriter.segment(reportPath(outputDir, reportName) + ".part-" + index);
+        writer.setFsyncPolicy(reportFsyncPolicy);
+        return writer;
+    }
+
+    @Bean
+    @StepScope
+    ReportMergeTasklet reportMergeTasklet(JobRepository jobRepository,
+                                          @Value("#{jobParameters['outputDir']}") String outputDir,
+                                          @Value("#{jobParameters['reportName']}") String reportName) {
+        ReportMergeTasklet tasklet = new ReportMergeTasklet(jobRepository, WORKER_STEP,
+                reportPath(outputDir, reportName));
+        tasklet.setFsyncPolicy(reportFsyncPolicy);
+        return tasklet;
+    }
+
+    // Segmento de cada fuente del split: sourceStep:csv escribe report.txt.csv
+    @Bean
+    @StepScope
+    ReportWriter sourceSegmentWriter(@Value("#{stepExecution.stepName}") String stepName,
+                                     @Value("#{jobParameters['outputDir']}") String outputDir,
+                                     @Value("#{jobParameters['reportName']}") String reportName) {
+        String source = stepName.substring(stepName.indexOf(':') + 1);
+        ReportWriter writer = ReportWriter.segment(reportPath(outputDir, reportName) + "." + source);
+        writer.setFsyncPolicy(reportFsyncPolicy);
+        return writer;
+    }
+
+    @Bean
+    @StepScope
+    ReportMergeTasklet sourceMergeTasklet(JobRepository jobRepository,
+                                          @Value("#{jobParameters['outputDir']}") String outputDir,
+                                          @Value("#{jobParameters['reportName']}") String reportName) {
+        ReportMergeTasklet tasklet = new ReportMergeTasklet(jobRepository, SOURCE_STEP,
+                reportPath(outputDir, reportName));
+        tasklet.setFsyncPolicy(reportFsyncPolicy);
+        return tasklet;
+    }
+
+    /*
+     Step de una fuente del split. Cada fuente va en su propio hilo del split y, con threads-per-source > 1,
+     además procesa sus chunks en un pool propio (reader serializado y segmento sincronizado). El índice en
+     el contexto fija el orden de los segmentos en el reporte: primero el CSV y después el Parquet.
+    */
+    Step sourceStep(String source, int index, ItemReader<Data> reader, JobRepository jobRepository,
+                    PlatformTransactionManager platformTransactionManager) {
+        boolean threaded = splitThreadsPerSource > 1;
+        ReportWriter segment = sourceSegmentWriter(null, null, null);
+        ItemWriter<Data> segmentWriter = segment;
+        if (threaded) {
+            SynchronizedItemStreamWriter<Data> synchronizedWriter = new SynchronizedItemStreamWriter<>();
+            synchronizedWriter.setDelegate(segment);
+            segmentWriter = synchronizedWriter;
+        }
+        List<ItemWriter<? super Data>> writers = new ArrayList<>();
+        writers.add(segmentWriter);
+        if (jdbcEnabled) {
+            writers.add(jdbcLoanResultWriter());
+        }
+        SimpleStepBuilder<Data, Data> builder = chunkStep(SOURCE_STEP + ":" + source, jobRepository,
+                platformTransactionManager)
+                .reader(threaded ? new SynchronizedItemReader<>(reader, source + "Reader") : reader)
+                .processor(itemProcessor(false))
+                .writer(writers.size() == 1 ? segmentWriter : compositeWriter(writers))
+                .listener(segment)
+                .listener(new StepExecutionListener() {
+                    @Override
+                    public void beforeStep(StepExecution stepExecution) {
+                        stepExecution.getExecutionContext().putInt(LineRangePartitioner.INDEX_KEY, index);
+                    }
+                });
+        if (jdbcEnabled) {
+            builder.listener(jdbcLoanResultWriter());
+        }
+        if (threaded) {
+            // Un chunk en curso por hilo del pool de la fuente, sin throttleLimit
+            builder.stepOperations(new PooledChunkRepeatOperations(
+                    stepTaskExecutor(source + "-", splitThreadsPerSource), splitThreadsPerSource));
+        }
+        return builder.build();
+    }
+
+    /*
+     CSV y Parquet en paralelo, cada uno en su step; el reporte se compone al terminar los dos. Ninguna
+     fuente guarda su posición (el segmento se reescribe desde cero al abrir), así que el job no es
+     reiniciable.
+    */
+    Flow sourcesSplit(JobRepository jobRepository, PlatformTransactionManager platformTransactionManager,
+                      Resource input) {
+        if (parquetEnabled || incrementalEnabled || statsEnabled || reportSortKey != ReportSortKey.NONE) {
+            logger.warn("La salida Parquet, el modo incremental, las estadísticas y el reporte ordenado "
+                    + "no se aplican en el modo split");
+        }
+        Flow csv = new FlowBuilder<SimpleFlow>("csvFlow")
+                .start(sourceStep("csv", 0, reader(input, false), jobRepository, platformTransactionManager))
+                .build();
+        Flow parquet = new FlowBuilder<SimpleFlow>("parquetFlow")
+                .start(sourceStep("parquet", 1, clientFileReaderParquet.getObject().clientParquetItemReader(parquetInputResource(input)),
+                        jobRepository, platformTransactionManager))
                 .build();
+        return new FlowBuilder<SimpleFlow>("sourcesSplit")
+                .split(new SimpleAsyncTaskExecutor("source-"))
+                .add(csv, parquet)
+                .build();
+    }
+
+    Step sourceMergeStep(JobRepository jobRepository, PlatformTransactionManager platformTransactionManager) {
+        return new StepBuilder("sourceMergeStep", jobRepository)
+                .tasklet(sourceMergeTasklet(jobRepository, null, null), platformTransactionManager)
+                .build();
+    }
+
+    Step workerStep(JobRepository jobRepository, PlatformTransactionManager platformTransactionManager) {
+        List<ItemWriter<? super Data>> writers = new ArrayList<>();
+        writers.add(segmentWriter(null, null, null));
+        if (jdbcEnabled) {
+            writers.add(jdbcLoanResultWriter());
+        }
+        SimpleStepBuilder<Data, Data> builder = chunkStep(WORKER_STEP, jobRepository, platformTransactionManager)
+                .reader(partitionReader(null, null, null))
+                .processor(itemProcessor(false))
+                .writer(writers.size() == 1 ? segmentWriter(null, null, null) : compositeWriter(writers))
+                .listener(segmentWriter(null, null, null));
+        if (jdbcEnabled) {
+            builder.listener(jdbcLoanResultWriter());
+        }
+        return builder.build();
     }
 
+    private CompositeItemWriter<Data> compositeWriter(List<ItemWriter<? super Data>> delegates) {
+        CompositeItemWriter<Data> composite = new CompositeItemWriter<>();
+        composite.setDelegates(delegates);
+        return composite;
+    }
+
+    Step partitionedStep(JobRepository jobRepository, PlatformTransactionManager platformTransactionManager,
+                         Resource input) {
+        if (parquetEnabled || incrementalEnabled || statsEnabled || reportSortKey != ReportSortKey.NONE) {
+            logger.warn("La salida Parquet, el modo incremental, las estadísticas y el reporte ordenado "
+                    + "no se aplican en el modo particionado");
+        }
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("partition-");
+        taskExecutor.setConcurrencyLimit(partitionGridSize);
+        return new StepBuilder("step1", jobRepository)
+                .partitioner(WORKER_STEP, new LineRangePartitioner(input, 1))
+                .step(workerStep(jobRepository, platformTransactionManager))
+                .gridSize(partitionGridSize)
+                .taskExecutor(taskExecutor)
+                .build();
+    }
+
+    Step reportMergeStep(JobRepository jobRepository, PlatformTransactionManager platformTransactionManager) {
+        return new StepBuilder("reportMergeStep", jobRepository)
+                .tasklet(reportMergeTasklet(jobRepository, null, null), platformTransactionManager)
+                .build();
+    }
+
+    // Segmento del reporte de un worker remoto: <segment-dir>/report.txt.worker-<id>
+    private String remoteSegmentFile(String workerId) {
+        return reportPath(remoteSegmentDir, DEFAULT_REPORT_NAME) + ".worker-" + workerId;
+    }
+
+    // Manager: con el canal en memoria los workers son hilos de esta JVM con su propio segmento.
+    // Perezoso: fuera del rol MANAGER no se crean ni el canal ni los workers locales
+    @Lazy
     @Bean
-    public Job job(JobRepository jobRepository, Step step) {
-        return new JobBuilder("importClientsJob", jobRepository)
-                .incrementer(new RunIdIncrementer())
-                .start(step)
+    RemoteChunkItemWriter remoteChunkItemWriter() {
+        if (remoteChannel == ChunkChannelType.SOCKET) {
+            return new RemoteChunkItemWriter(new SocketChunkChannel(remotePort, remoteWorkers, remoteMaxInFlight,
+                    remoteConnectTimeoutMs), remoteMaxInFlight, remoteResponseTimeoutMs);
+        }
+        InMemoryChunkChannel channel = new InMemoryChunkChannel();
+        RemoteChunkItemWriter writer = new RemoteChunkItemWriter(channel, remoteMaxInFlight, remoteResponseTimeoutMs);
+        for (int i = 0; i < remoteWorkers; i++) {
+            String workerId = "local-" + i;
+            writer.addLocalWorker(new ChunkWorker(workerId, channel.worker(), itemProcessor(false),
+                    remoteSegmentFile(workerId), reportFsyncPolicy));
+        }
+        return writer;
+    }
+
+    @Bean
+    @StepScope
+    RemoteReportTasklet remoteReportTasklet(@Value("#{jobParameters['outputDir']}") String outputDir,
+                                            @Value("#{jobParameters['reportName']}") String reportName) {
+        RemoteReportTasklet tasklet = new RemoteReportTasklet(remoteChunkItemWriter(),
+                reportPath(outputDir, reportName));
+        tasklet.setFsyncPolicy(reportFsyncPolicy);
+        return tasklet;
+    }
+
+    // Step del manager: solo lee el CSV y reparte los chunks; el processor y el reporte están en los workers
+    Step remoteManagerStep(JobRepository jobRepository, PlatformTransactionManager platformTransactionManager,
+                           Resource input) {
+        if (parquetEnabled || jdbcEnabled || incrementalEnabled || statsEnabled
+                || reportSortKey != ReportSortKey.NONE) {
+            logger.warn("Las salidas Parquet/JDBC, el modo incremental, las estadísticas y el reporte ordenado "
+                    + "no se aplican en el modo remoto");
+        }
+        // Los chunks enviados no están escritos al hacer commit: el reader no guarda posición (job no reiniciable)
+        return chunkStep("step1", jobRepository, platformTransactionManager)
+                .reader(reader(input, false))
+                .writer(remoteChunkItemWriter())
+                .build();
+    }
+
+    Step remoteReportStep(JobRepository jobRepository, PlatformTransactionManager platformTransactionManager) {
+        return new StepBuilder("remoteReportStep", jobRepository)
+                .tasklet(remoteReportTasklet(null, null), platformTransactionManager)
+                .build();
+    }
+
+    /*
+     JVM worker (batch.remote.role=WORKER, con spring.batch.job.enabled=false): abre worker.threads
+     conexiones con el manager y procesa chunks hasta recibir END en todas.
+    */
+    @Bean
+    @ConditionalOnProperty(name = "batch.remote.role", havingValue = "WORKER")
+    ApplicationRunner remoteWorkerRunner() {
+        return args -> {
+            String baseId = remoteWorkerId.isBlank()
+                    ? "worker-" + ProcessHandle.current().pid() : remoteWorkerId;
+            RejectedRowWriter rejected = rejectedRowWriter();
+            rejected.open(new ExecutionContext());
+            if (progressIntervalMs > 0) {
+                progressReporter().start();
+            }
+            try {
+                List<Thread> threads = new ArrayList<>(remoteWorkerThreads);
+                for (int i = 0; i < remoteWorkerThreads; i++) {
+                    String workerId = baseId + "-" + i;
+                    ChunkWorker worker = new ChunkWorker(workerId,
+                            SocketChunkWorkerChannel.connect(remoteHost, remotePort, remoteConnectTimeoutMs),
+                            itemProcessor(false), remoteSegmentFile(workerId), reportFsyncPolicy);
+                    Thread thread = new Thread(worker, workerId);
+                    threads.add(thread);
+                    thread.start();
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            } finally {
+                if (progressIntervalMs > 0) {
+                    progressReporter().stop();
+                }
+                rejected.close();
+            }
+        };
+    }
+
+    // Las particiones y los workers comparten el fichero de rechazados: se abre y se cierra una vez por job
+    private JobExecutionListener rejectedFileListener() {
+        RejectedRowWriter rejected = rejectedRowWriter();
+        return new JobExecutionListener() {
+            @Override
+            public void beforeJob(JobExecution jobExecution) {
+                rejected.open(new ExecutionContext());
+            }
+
+            @Override
+            public void afterJob(JobExecution jobExecution) {
+                rejected.close();
+            }
+        };
+    }
+
+    @Bean
+    public Job job(JobRepository jobRepository, PlatformTransactionManager platformTransactionManager, Step step) {
+        return importClientsJob(jobRepository, platformTransactionManager, step, inputResource(null));
+    }
+
+    Job importClientsJob(JobRepository jobRepository, PlatformTransactionManager platformTransactionManager,
+                         Step step, Resource input) {
+        JobBuilder builder = new JobBuilder("importClientsJob", jobRepository)
+                .incrementer(new RunIdIncrementer());
+        if (repositoryTimingEnabled) {
+            builder.listener((JobExecutionListener) commitLatencyListener());
+        }
+        if (progressIntervalMs > 0) {
+            // Líneas periódicas de progreso mientras dura el job
+            builder.listener(progressReporter());
+        }
+        if (warmUpEnabled && !dryRun) {
+            // Conexiones abiertas y código caliente antes del primer chunk real
+            builder.listener(warmUpListener());
+        }
+        if (remoteRole != RemoteRole.MANAGER && !partitionEnabled && !splitEnabled) {
+            if (!plainStepRestartable()) {
+                builder.preventRestart();
+            }
+            return builder.start(step).build();
+        }
+        if (!serverEnabled) {
+            builder.listener(rejectedFileListener());
+        }
+        if (remoteRole == RemoteRole.MANAGER) {
+            return builder
+                    .preventRestart()
+                    .listener(remoteChunkItemWriter())//abre el canal y arranca los workers locales
+                    .start(remoteManagerStep(jobRepository, platformTransactionManager, input))//reparte los chunks
+                    .next(remoteReportStep(jobRepository, platformTransactionManager))//une los segmentos
+                    .build();
+        }
+        if (!partitionEnabled) {
+            return builder
+                    .preventRestart()//las fuentes no guardan posición y los segmentos se reescriben
+                    .start(sourcesSplit(jobRepository, platformTransactionManager, input))//CSV y Parquet a la vez
+                    .next(sourceMergeStep(jobRepository, platformTransactionManager))//une los segmentos
+                    .end()
+                    .build();
+        }
+        return builder
+                .start(partitionedStep(jobRepository, platformTransactionManager, input))//cada partición genera su segmento
+                .next(reportMergeStep(jobRepository, platformTransactionManager))//une los segmentos en report.txt
                 .build();
     }
+
+    /*
+     Modo servidor (perfil server): JVM residente que lanza importClientsJob por cada fichero nuevo del buzón.
+     Cada lanzamiento construye su propio step y su reader sobre el fichero; processor, pool HTTP y cachés
+     son los mismos en todos los jobs.
+    */
+    @Bean
+    @ConditionalOnProperty(name = "batch.server.enabled", havingValue = "true")
+    InboxJobServer inboxJobServer(JobLauncher jobLauncher, JobRepository jobRepository,
+                                  PlatformTransactionManager platformTransactionManager) {
+        int parallelism = serverParallelism;
+        if (parallelism > 1 && remoteRole == RemoteRole.MANAGER) {
+            logger.warn("El modo remoto comparte un único canal con los workers: el servidor lanza los jobs de uno en uno");
+            parallelism = 1;
+        } else if (parallelism > 1 && (parquetEnabled || statsEnabled || incrementalEnabled)) {
+            // Son singletons que cada step abre y cierra: con jobs a la vez uno cerraría el índice o el fichero
+            // que otro sigue usando
+            logger.warn("La salida Parquet, las estadísticas y el índice incremental son compartidos por todos "
+                    + "los ficheros: el servidor lanza los jobs de uno en uno");
+            parallelism = 1;
+        }
+        InboxJobServer server = new InboxJobServer(jobLauncher,
+                file -> {
+                    Resource input = new FileSystemResource(file);
+                    return importClientsJob(jobRepository, platformTransactionManager,
+                            importStep(jobRepository, platformTransactionManager, input), input);
+                },
+                serverInboxDir, serverOutputDir, serverFilePattern, parallelism, serverSettleMs);
+        server.addSessionStream(rejectedRowWriter());
+        return server;
+    }
 }
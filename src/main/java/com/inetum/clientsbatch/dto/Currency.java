@@ -0,0 +1,31 @@
+package com.inetum.clientsbatch.dto;
+
+/*
+ Monedas con las que trabaja el batch. Se usan para validar y para canonizar los códigos: los setters de
+ Data guardan el String del enum, así todas las filas comparten la misma instancia en vez de una copia.
+*/
+public enum Currency {
+    USD,
+    EUR,
+    MXN;
+
+    private static final Currency[] VALUES = values();
+
+    public static Currency fromCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        for (Currency currency : VALUES) {
+            if (currency.name().equals(code)) {
+                return currency;
+            }
+        }
+        return null;
+    }
+
+    // Devuelve el String constante del enum si el código es conocido, o el mismo valor si no
+    public static String canonical(String code) {
+        Currency currency = fromCode(code);
+        return currency == null ? code : currency.name();
+    }
+}
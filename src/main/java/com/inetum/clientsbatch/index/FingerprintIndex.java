@@ -0,0 +1,202 @@
+package com.inetum.clientsbatch.index;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/*
+ Tabla hash persistente (direccionamiento abierto con sondeo lineal) sobre un fichero mapeado en memoria.
+ Clave: huella de la fila. Valor: clientId, simulationId y loanId que generó la API.
+
+ Formato del fichero:
+   cabecera (32 bytes): magic, versión, capacidad (potencia de 2), número de entradas
+   slots (32 bytes c/u): huella, clientId, simulationId, loanId   (huella 0 = slot libre)
+
+ Al superar el 70% de ocupación se duplica la capacidad: las entradas se redistribuyen de la tabla mapeada
+ a un fichero nuevo (<índice>.grow), también mapeado, que se fuerza a disco y sustituye al anterior con
+ ATOMIC_MOVE. Ni se copia la tabla al heap ni una caída a mitad deja el índice a medias.
+ Los métodos son synchronized: el processor consulta y el writer inserta desde hilos distintos.
+*/
+public class FingerprintIndex implements Closeable {
+
+    private static final int MAGIC = 0x46504958; // "FPIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int SLOT_BYTES = 32;
+    private static final double MAX_LOAD = 0.7;
+
+    private final Path file;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int size;
+
+    private FingerprintIndex(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    public static FingerprintIndex open(Path file, int initialCapacity) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FingerprintIndex index = new FingerprintIndex(file, channel);
+        try {
+            if (channel.size() >= HEADER_BYTES) {
+                index.load();
+            } else {
+                index.create(Integer.highestOneBit(Math.max(initialCapacity, 16) - 1) << 1);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return index;
+    }
+
+    private void load() throws IOException {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("El fichero no es un índice de huellas válido");
+        }
+        capacity = header.getInt(8);
+        size = header.getInt(12);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * SLOT_BYTES);
+    }
+
+    private void create(int newCapacity) throws IOException {
+        capacity = newCapacity;
+        size = 0;
+        buffer = map(channel, capacity);
+        buffer.putInt(12, size);
+    }
+
+    // Mapea una tabla vacía de la capacidad indicada y escribe la cabecera
+    private static MappedByteBuffer map(FileChannel target, int tableCapacity) throws IOException {
+        MappedByteBuffer mapped = target.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_BYTES + (long) tableCapacity * SLOT_BYTES);
+        for (long pos = HEADER_BYTES; pos < mapped.capacity(); pos += 8) {
+            mapped.putLong((int) pos, 0L);
+        }
+        mapped.putInt(0, MAGIC);
+        mapped.putInt(4, VERSION);
+        mapped.putInt(8, tableCapacity);
+        return mapped;
+    }
+
+    // loanId registrado para la huella, o -1 si la fila no está en el índice
+    public synchronized long getLoanId(long fingerprint) {
+        int slot = find(normalize(fingerprint));
+        return slot < 0 ? -1L : buffer.getLong(offset(slot) + 24);
+    }
+
+    public synchronized boolean contains(long fingerprint) {
+        return find(normalize(fingerprint)) >= 0;
+    }
+
+    public synchronized void put(long fingerprint, long clientId, long simulationId, long loanId) throws IOException {
+        long key = normalize(fingerprint);
+        if (size + 1 > capacity * MAX_LOAD) {
+            grow();
+        }
+        int slot = probe(key);
+        int offset = offset(slot);
+        if (buffer.getLong(offset) == 0L) {
+            buffer.putLong(offset, key);
+            size++;
+            buffer.putInt(12, size);
+        }
+        buffer.putLong(offset + 8, clientId);
+        buffer.putLong(offset + 16, simulationId);
+        buffer.putLong(offset + 24, loanId);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Fuerza la escritura a disco de las páginas modificadas
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+        channel.close();
+    }
+
+    private int find(long key) {
+        int slot = probe(buffer, capacity, key);
+        return buffer.getLong(offset(slot)) == key ? slot : -1;
+    }
+
+    private int probe(long key) {
+        return probe(buffer, capacity, key);
+    }
+
+    // Primer slot que contiene la clave o, si no está, el primer slot libre de su secuencia
+    private static int probe(MappedByteBuffer table, int tableCapacity, long key) {
+        int mask = tableCapacity - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (true) {
+            long current = table.getLong(offset(slot));
+            if (current == 0L || current == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() throws IOException {
+        int newCapacity = capacity * 2;
+        Path growFile = file.resolveSibling(file.getFileName() + ".grow");
+        FileChannel newChannel = FileChannel.open(growFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer newBuffer = map(newChannel, newCapacity);
+            int moved = 0;
+            for (int slot = 0; slot < capacity; slot++) {
+                int offset = offset(slot);
+                long key = buffer.getLong(offset);
+                if (key != 0L) {
+                    int target = offset(probe(newBuffer, newCapacity, key));
+                    newBuffer.putLong(target, key);
+                    newBuffer.putLong(target + 8, buffer.getLong(offset + 8));
+                    newBuffer.putLong(target + 16, buffer.getLong(offset + 16));
+                    newBuffer.putLong(target + 24, buffer.getLong(offset + 24));
+                    moved++;
+                }
+            }
+            newBuffer.putInt(12, moved);
+            // El fichero nuevo está completo en disco antes de sustituir al anterior
+            newBuffer.force();
+            Files.move(growFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            channel.close();
+            channel = newChannel;
+            buffer = newBuffer;
+            capacity = newCapacity;
+            size = moved;
+        } catch (IOException | RuntimeException e) {
+            newChannel.close();
+            Files.deleteIfExists(growFile);
+            throw e;
+        }
+    }
+
+    private static int offset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private static long normalize(long fingerprint) {
+        // 0 marca un slot libre
+        return fingerprint == 0L ? 1L : fingerprint;
+    }
+}
@@ -0,0 +1,71 @@
+package com.inetum.clientsbatch.index;
+
+import com.inetum.clientsbatch.dto.Data;
+
+import java.time.LocalDate;
+
+/*
+ Huella de 64 bits de los campos de entrada de una fila (FNV-1a + mezcla final de murmur3).
+ Los campos que genera la API no entran: la misma fila del fichero da la misma huella en cada ejecución.
+*/
+public final class RowFingerprint {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NULL_MARK = 0x9e3779b97f4a7c15L;
+
+    private RowFingerprint() {
+    }
+
+    public static long of(Data data) {
+        long h = FNV_OFFSET;
+        h = mix(h, data.getFirstName());
+        h = mix(h, data.getPaternalLastName());
+        h = mix(h, data.getMaternalLastName());
+        h = mix(h, data.getCurrencyOfIncome());
+        h = mix(h, data.getMonthlyIncome());
+        h = mix(h, data.getLoanAmount());
+        h = mix(h, data.getCurrency());
+        h = mix(h, data.getInterestRate());
+        h = mix(h, data.getTerm() == null ? null : data.getTerm().longValue());
+        LocalDate date = data.getDisbursementDate();
+        h = mix(h, date == null ? null : date.toEpochDay());
+        return finish(h);
+    }
+
+    private static long mix(long h, String value) {
+        if (value == null) {
+            return mixLong(h, NULL_MARK);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * FNV_PRIME;
+        }
+        // Separador de campo para que "ab"+"c" no coincida con "a"+"bc"
+        return (h ^ 0x1f) * FNV_PRIME;
+    }
+
+    private static long mix(long h, Double value) {
+        return mixLong(h, value == null ? NULL_MARK : Double.doubleToLongBits(value));
+    }
+
+    private static long mix(long h, Long value) {
+        return mixLong(h, value == null ? NULL_MARK : value);
+    }
+
+    private static long mixLong(long h, long value) {
+        for (int i = 0; i < 8; i++) {
+            h = (h ^ (value & 0xff)) * FNV_PRIME;
+            value >>>= 8;
+        }
+        return h;
+    }
+
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
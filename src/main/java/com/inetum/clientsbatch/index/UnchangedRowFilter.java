@@ -0,0 +1,108 @@
+package com.inetum.clientsbatch.index;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Reprocesamiento incremental: antes de llamar a la API se busca la huella de la fila en el índice
+ persistente y, si esa misma fila ya generó un préstamo en una ejecución anterior, se descarta.
+ Tras cada write se registran las filas que han obtenido préstamo.
+
+ Va registrado como processor (primera etapa), como listener de escritura y como stream del step.
+*/
+public class UnchangedRowFilter implements ItemProcessor<Data, Data>, ItemWriteListener<Data>, ItemStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnchangedRowFilter.class);
+
+    private final Path indexFile;
+    private final int initialCapacity;
+    private FingerprintIndex index;
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong recorded = new AtomicLong();
+
+    public UnchangedRowFilter(String indexFile, int initialCapacity) {
+        this.indexFile = Path.of(indexFile);
+        this.initialCapacity = initialCapacity;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            index = FingerprintIndex.open(indexFile, initialCapacity);
+            skipped.set(0);
+            recorded.set(0);
+            logger.info("Índice incremental {}: {} filas con préstamo registradas", indexFile, index.size());
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo abrir el índice " + indexFile, e);
+        }
+    }
+
+    @Override
+    public Data process(Data data) {
+        if (index.getLoanId(RowFingerprint.of(data)) > 0) {
+            skipped.incrementAndGet();
+            return null;
+        }
+        return data;
+    }
+
+    @Override
+    public void afterWrite(Chunk<? extends Data> items) {
+        try {
+            for (Data data : items) {
+                if (data.getLoanId() != null) {
+                    index.put(RowFingerprint.of(data),
+                            data.getClientId() == null ? 0L : data.getClientId(),
+                            data.getSimulationId() == null ? 0L : data.getSimulationId(),
+                            data.getLoanId());
+                    recorded.incrementAndGet();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo actualizar el índice " + indexFile, e);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (index != null) {
+            index.force();
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (index == null) {
+            return;
+        }
+        try {
+            index.close();
+            logger.info("Índice incremental: {} filas sin cambios omitidas | {} préstamos nuevos registrados",
+                    skipped.get(), recorded.get());
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo cerrar el índice " + indexFile, e);
+        } finally {
+            index = null;
+        }
+    }
+
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    public long getRecorded() {
+        return recorded.get();
+    }
+}
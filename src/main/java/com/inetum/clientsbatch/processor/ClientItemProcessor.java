@@ -1,8 +1,9 @@
 package com.inetum.clientsbatch.processor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inetum.clientsbatch.chunk.AdaptiveChunkCompletionPolicy;
 import com.inetum.clientsbatch.dto.Data;
-import com.inetum.clientsbatch.writer.ReportWriter;
+import com.inetum.clientsbatch.writer.RejectedRowWriter;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -12,7 +13,9 @@ import org.springframework.web.client.RestTemplate;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,13 +28,75 @@ public class ClientItemProcessor implements ItemProcessor<Data, Data> {
     private static final String SIMULATION_API_URL = "http://localhost:8081/api-simulation-loans/simulations/client/";
     private static final String LOAN_API_URL = "http://localhost:8082/api-generation-loans/loans/generate/simulation/";
 
+    // Servidores a los que llama el processor (esquema, host y puerto), para el calentamiento de conexiones
+    static final List<String> ENDPOINTS = List.of("http://localhost:8081", "http://localhost:8082");
+
+    // Etapas del informe de fallos
+    public static final String STAGE_CLIENT = "CLIENTE";
+    public static final String STAGE_SIMULATION = "SIMULACION";
+    public static final String STAGE_LOAN = "PRESTAMO";
+    static final String NOT_APPROVED = "NO_APROBADO";
+
+    private RejectedRowWriter failureWriter;
+    private ItemLogSampler itemLog = ItemLogSampler.ALL;
+    private ProgressReporter progress;
+
     public ClientItemProcessor() {
         this.restTemplate = new RestTemplate();
         this.objectMapper = new ObjectMapper();
     }
 
+    // El calentamiento abre las conexiones con el mismo RestTemplate que usarán las filas reales
+    RestTemplate getRestTemplate() {
+        return restTemplate;
+    }
+
+    // ...y lee las respuestas sintéticas con el mismo ObjectMapper, para que sus cachés queden calientes
+    ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    // Opcional: si se configura, cada fila fallida o no aprobada se anota con su etapa y latencia
+    public void setFailureWriter(RejectedRowWriter failureWriter) {
+        this.failureWriter = failureWriter;
+    }
+
+    // Trazas informativas por fila limitadas (batch.logging.items-per-second); los fallos se registran siempre
+    public void setItemLogSampler(ItemLogSampler itemLog) {
+        this.itemLog = itemLog;
+    }
+
+    // Opcional: contadores para las líneas periódicas de progreso
+    public void setProgressReporter(ProgressReporter progress) {
+        this.progress = progress;
+    }
+
+    private void recordFailure(Data data, String stage, String reason, long startNanos) {
+        if (!NOT_APPROVED.equals(reason)) {
+            // El fallo se captura aquí y no llega a onProcessError: el chunk adaptativo lo cuenta así
+            AdaptiveChunkCompletionPolicy.itemFailed();
+        }
+        if (progress != null) {
+            if (NOT_APPROVED.equals(reason)) {
+                progress.notApproved();
+            } else {
+                progress.failed(stage);
+            }
+        }
+        if (failureWriter != null) {
+            failureWriter.reject(data, stage, reason, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+    }
+
+    private static String reasonOf(Exception e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
     @Override
     public Data process(Data data) throws Exception {
+        if (progress != null) {
+            progress.itemStarted();
+        }
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
 
@@ -44,6 +109,7 @@ public class ClientItemProcessor implements ItemProcessor<Data, Data> {
 
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
 
+        long start = System.nanoTime();
         try {
             var response = restTemplate.postForEntity(API_URL, request, String.class);
 
@@ -53,11 +119,11 @@ public class ClientItemProcessor implements ItemProcessor<Data, Data> {
                 Long clientId = jsonNode.get("clientId").asLong();
                 data.setClientId(clientId);
 
-                if(response.getStatusCode().value()== 201)
-                    logger.info("✓ Cliente creado: id: " + clientId + " nombre: " + data.getFirstName());
-
-                if(response.getStatusCode().value()== 200)
-                    logger.info("✓ Cliente existe: id: " + clientId + " nombre: " + data.getFirstName());
+                int status = response.getStatusCode().value();
+                if ((status == 201 || status == 200) && itemLog.shouldLog()) {
+                    logger.info("Cliente {}: id: {} nombre: {}", status == 201 ? "creado" : "existe", clientId,
+                            data.getFirstName());
+                }
 
                 // Segunda llamada: Crear simulación
                 if (createSimulation(data, clientId, headers)) {
@@ -68,16 +134,19 @@ public class ClientItemProcessor implements ItemProcessor<Data, Data> {
 
             } else {
                 logger.warn("Error al enviar cliente: {}", response.getStatusCode());
+                recordFailure(data, STAGE_CLIENT, "HTTP " + response.getStatusCode().value(), start);
                 return null;
             }
 
         } catch (Exception e) {
             logger.warn("Error consumiendo API para cliente {}", data.getFirstName());
+            recordFailure(data, STAGE_CLIENT, reasonOf(e), start);
             return null;
         }
     }
 
     private boolean createSimulation(Data data, Long clientId, HttpHeaders headers) {
+        long start = System.nanoTime();
         try {
             Map<String, Object> simulationPayload = new HashMap<>();
             simulationPayload.put("loanAmount", data.getLoanAmount());
@@ -109,29 +178,38 @@ public class ClientItemProcessor implements ItemProcessor<Data, Data> {
                 Double totalPayment = jsonNode.get("totalPayment").asDouble();
                 data.setTotalPayment(totalPayment);
 
-                logger.info("Simulación creada para cliente: {} | simulationId: {} | approved: {}",
-                        clientId, simulationId, approved);
+                if (itemLog.shouldLog()) {
+                    logger.info("Simulación creada para cliente: {} | simulationId: {} | approved: {}",
+                            clientId, simulationId, approved);
+                }
 
                 // Tercera llamada: Crear préstamo solo si está aprobado
                 if (approved) {
                     return createLoan(data, simulationId, headers);
                 } else {
-                    logger.info("Simulación no aprobada para cliente: {} - No se creará el préstamo", clientId);
+                    if (itemLog.shouldLog()) {
+                        logger.info("Simulación no aprobada para cliente: {} - No se creará el préstamo", clientId);
+                    }
+                    recordFailure(data, STAGE_SIMULATION, NOT_APPROVED, start);
                     return true;
                 }
 
             } else {
-                logger.warn("Error al crear simulación para cliente {}: {}", clientId, simulationResponse.getStatusCode());
+                logger.warn("Error al crear simulación para cliente {}: {}", clientId,
+                        simulationResponse.getStatusCode());
+                recordFailure(data, STAGE_SIMULATION, "HTTP " + simulationResponse.getStatusCode().value(), start);
                 return false;
             }
 
         } catch (Exception e) {
-            logger.warn("Error creando simulación para cliente {}",clientId);
+            logger.warn("Error creando simulación para cliente {}", clientId);
+            recordFailure(data, STAGE_SIMULATION, reasonOf(e), start);
             return false;
         }
     }
 
     private boolean createLoan(Data data, Long simulationId, HttpHeaders headers) {
+        long start = System.nanoTime();
         try {
             HttpEntity<Void> loanRequest = new HttpEntity<>(headers);
             String loanUrl = LOAN_API_URL + simulationId;
@@ -148,15 +226,23 @@ public class ClientItemProcessor implements ItemProcessor<Data, Data> {
                 data.setNextPaymentDate(dueDate);
 
                 data.setTotalInterest(data.getMonthlyPayment()*data.getTerm()-data.getLoanAmount());
-                logger.info("Préstamo creado: loanId: {} para simulación: {}", loanId, simulationId);
+                if (progress != null) {
+                    progress.loanCreated();
+                }
+                if (itemLog.shouldLog()) {
+                    logger.info("Préstamo creado: loanId: {} para simulación: {}", loanId, simulationId);
+                }
                 return true;
             } else {
-                logger.warn("Error al crear préstamo para simulación {}: {}", simulationId, loanResponse.getStatusCode());
+                logger.warn("Error al crear préstamo para simulación {}: {}", simulationId,
+                        loanResponse.getStatusCode());
+                recordFailure(data, STAGE_LOAN, "HTTP " + loanResponse.getStatusCode().value(), start);
                 return false;
             }
 
         } catch (Exception e) {
             logger.warn("Error creando préstamo para simulación {}", simulationId);
+            recordFailure(data, STAGE_LOAN, reasonOf(e), start);
             return false;
         }
     }
@@ -0,0 +1,53 @@
+package com.inetum.clientsbatch.processor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ Limita las trazas informativas por fila a maxPerSecond por segundo entre todos los hilos; el resto se
+ descartan antes de formatear el mensaje y solo se cuentan. Con un valor negativo se registran todas (el
+ comportamiento de siempre) y con 0 ninguna: en ese caso el seguimiento lo dan las líneas de
+ ProgressReporter. Los avisos de filas fallidas no pasan por aquí y se registran siempre.
+*/
+public class ItemLogSampler {
+
+    public static final ItemLogSampler ALL = new ItemLogSampler(-1);
+
+    private final int maxPerSecond;
+    private final AtomicLong window = new AtomicLong(-1);
+    private final AtomicInteger logged = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    public ItemLogSampler(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    public boolean shouldLog() {
+        return shouldLog(System.nanoTime());
+    }
+
+    boolean shouldLog(long nowNanos) {
+        if (maxPerSecond < 0) {
+            return true;
+        }
+        if (maxPerSecond > 0) {
+            long second = TimeUnit.NANOSECONDS.toSeconds(nowNanos);
+            long current = window.get();
+            // El primer hilo que entra en un segundo nuevo reinicia la cuenta
+            if (second != current && window.compareAndSet(current, second)) {
+                logged.set(0);
+            }
+            if (logged.incrementAndGet() <= maxPerSecond) {
+                return true;
+            }
+        }
+        suppressed.increment();
+        return false;
+    }
+
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+}
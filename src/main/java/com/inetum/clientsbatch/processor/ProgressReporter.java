@@ -0,0 +1,123 @@
+package com.inetum.clientsbatch.processor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ Líneas de progreso agregadas en lugar de una traza por fila: cada intervalMillis registra las filas
+ procesadas por ClientItemProcessor, el ritmo del último intervalo, los préstamos creados, las
+ simulaciones no aprobadas y los fallos por etapa. Al terminar el job registra los totales y el ritmo medio.
+
+ Los contadores los alimenta el processor desde cualquier hilo. En modo servidor varios jobs pueden
+ compartirlo: el hilo de informe arranca con el primer job activo y se detiene con el último. Un worker
+ remoto no ejecuta ningún job y llama directamente a start() y stop().
+*/
+public class ProgressReporter implements JobExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProgressReporter.class);
+
+    private final long intervalMillis;
+    private final LongAdder items = new LongAdder();
+    private final LongAdder loans = new LongAdder();
+    private final LongAdder notApproved = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final AtomicInteger activeJobs = new AtomicInteger();
+    private ScheduledExecutorService scheduler;
+    private long startNanos;
+    private long lastNanos;
+    private long lastItems;
+
+    public ProgressReporter(long intervalMillis) {
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("El intervalo de progreso debe ser mayor que 0");
+        }
+        this.intervalMillis = intervalMillis;
+    }
+
+    public void itemStarted() {
+        items.increment();
+    }
+
+    public void loanCreated() {
+        loans.increment();
+    }
+
+    public void notApproved() {
+        notApproved.increment();
+    }
+
+    public void failed(String stage) {
+        failures.computeIfAbsent(stage, key -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        if (activeJobs.getAndIncrement() == 0) {
+            start();
+        }
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        if (activeJobs.decrementAndGet() == 0) {
+            stop();
+        }
+    }
+
+    public synchronized void start() {
+        items.reset();
+        loans.reset();
+        notApproved.reset();
+        failures.clear();
+        startNanos = System.nanoTime();
+        lastNanos = startNanos;
+        lastItems = 0;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "progress-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> logger.info(progressLine(System.nanoTime())), intervalMillis,
+                intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        long count = items.sum();
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        logger.info("Progreso final: {} filas en {} s ({} filas/s), {} préstamos, {} no aprobadas, fallos {}",
+                count, String.format("%.1f", seconds), String.format("%.1f", seconds > 0 ? count / seconds : 0),
+                loans.sum(), notApproved.sum(), failureCounts());
+    }
+
+    // Ritmo desde la línea anterior, no desde el inicio, para que se noten las caídas
+    synchronized String progressLine(long nowNanos) {
+        long count = items.sum();
+        double seconds = (nowNanos - lastNanos) / 1e9;
+        double rate = seconds > 0 ? (count - lastItems) / seconds : 0;
+        lastNanos = nowNanos;
+        lastItems = count;
+        return String.format("Progreso: %d filas (%.1f filas/s), %d préstamos, %d no aprobadas, fallos %s",
+                count, rate, loans.sum(), notApproved.sum(), failureCounts());
+    }
+
+    Map<String, Long> failureCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        failures.forEach((stage, count) -> counts.put(stage, count.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,228 @@
+package com.inetum.clientsbatch.processor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inetum.clientsbatch.dto.Data;
+import com.inetum.clientsbatch.reader.ClientFileReader;
+import com.inetum.clientsbatch.writer.ReportLineFormatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Calentamiento antes del primer chunk, para que los primeros chunks reales no paguen el arranque en frío:
+  - espera opcional a que cada servidor responda 2xx en healthPath (máximo healthTimeoutMillis);
+  - abre connectionsPerEndpoint conexiones simultáneas a cada servidor con el RestTemplate del processor
+    (DNS, handshake TCP y caché keep-alive llena; HttpURLConnection guarda hasta http.maxConnections por
+    servidor, 5 por defecto);
+  - pasa filas sintéticas por los mismos caminos que las reales (lectura del CSV, JSON de las respuestas y
+    formato del reporte) para que Jackson cree sus serializadores y el JIT compile el código caliente. Se
+    usan los ObjectMapper de verdad: el del processor para las respuestas y el del conversor JSON del
+    RestTemplate para las peticiones, así sus cachés quedan llenas.
+ Ningún fallo del calentamiento hace fallar el job: solo se registra.
+*/
+public class WarmUpListener implements JobExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmUpListener.class);
+    private static final long CONNECTION_HOLD_MILLIS = 5000;
+
+    private final RestTemplate restTemplate;
+    private final List<String> endpoints;
+    private final ClientFileReader clientFileReader;
+    private final int connectionsPerEndpoint;
+    private final int iterations;
+    private final String healthPath;
+    private final long healthTimeoutMillis;
+    private final ObjectMapper responseMapper;
+    private final ObjectMapper requestMapper;
+
+    public WarmUpListener(ClientItemProcessor processor, ClientFileReader clientFileReader, int connectionsPerEndpoint,
+                          int iterations, String healthPath, long healthTimeoutMillis) {
+        this(processor.getRestTemplate(), processor.getObjectMapper(), ClientItemProcessor.ENDPOINTS,
+                clientFileReader, connectionsPerEndpoint, iterations, healthPath, healthTimeoutMillis);
+    }
+
+    WarmUpListener(RestTemplate restTemplate, ObjectMapper responseMapper, List<String> endpoints,
+                   ClientFileReader clientFileReader, int connectionsPerEndpoint, int iterations, String healthPath,
+                   long healthTimeoutMillis) {
+        this.restTemplate = restTemplate;
+        this.responseMapper = responseMapper;
+        this.requestMapper = requestMapper(restTemplate, responseMapper);
+        this.endpoints = endpoints;
+        this.clientFileReader = clientFileReader;
+        this.connectionsPerEndpoint = connectionsPerEndpoint;
+        this.iterations = iterations;
+        this.healthPath = healthPath == null ? "" : healthPath;
+        this.healthTimeoutMillis = healthTimeoutMillis;
+    }
+
+    // Mapper con el que el RestTemplate serializa los payloads; si no tiene conversor Jackson, el del processor
+    private static ObjectMapper requestMapper(RestTemplate restTemplate, ObjectMapper fallback) {
+        for (HttpMessageConverter<?> converter : restTemplate.getMessageConverters()) {
+            if (converter instanceof MappingJackson2HttpMessageConverter jackson) {
+                return jackson.getObjectMapper();
+            }
+        }
+        return fallback;
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        long start = System.nanoTime();
+        try {
+            if (healthTimeoutMillis > 0 && !healthPath.isBlank()) {
+                for (String endpoint : endpoints) {
+                    awaitHealthy(endpoint);
+                }
+            }
+            int opened = 0;
+            if (connectionsPerEndpoint > 0) {
+                for (String endpoint : endpoints) {
+                    opened += openConnections(endpoint);
+                }
+            }
+            int rows = warmCodePaths();
+            logger.info("Calentamiento en {} ms: {} conexiones abiertas, {} filas sintéticas",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), opened, rows);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("El calentamiento no se completó: {}", e.getMessage());
+        }
+    }
+
+    private void awaitHealthy(String endpoint) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + healthTimeoutMillis;
+        while (true) {
+            try {
+                Integer status = restTemplate.execute(endpoint + healthPath, HttpMethod.GET, null,
+                        response -> response.getStatusCode().value());
+                if (status != null && status >= 200 && status < 300) {
+                    return;
+                }
+            } catch (RestClientException e) {
+                // Aún no está listo
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                logger.warn("{} no respondió en {} ms: se empieza sin esperar más", endpoint + healthPath,
+                        healthTimeoutMillis);
+                return;
+            }
+            Thread.sleep(250);
+        }
+    }
+
+    /*
+     Las peticiones se retienen hasta que todas tienen su respuesta, así cada una usa una conexión distinta
+     en lugar de reutilizar la primera; al soltarlas quedan en la caché keep-alive. Cualquier respuesta HTTP
+     (también 404) vale: lo que interesa es la conexión.
+    */
+    int openConnections(String endpoint) throws InterruptedException {
+        String url = endpoint + (healthPath.isBlank() ? "/" : healthPath);
+        CountDownLatch allOpen = new CountDownLatch(connectionsPerEndpoint);
+        ExecutorService executor = Executors.newFixedThreadPool(connectionsPerEndpoint);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>(connectionsPerEndpoint);
+            for (int i = 0; i < connectionsPerEndpoint; i++) {
+                results.add(executor.submit(() -> {
+                    try {
+                        return restTemplate.execute(url, HttpMethod.GET, null, response -> {
+                            allOpen.countDown();
+                            try {
+                                allOpen.await(CONNECTION_HOLD_MILLIS, TimeUnit.MILLISECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return Boolean.TRUE;
+                        });
+                    } catch (RestClientException e) {
+                        allOpen.countDown();
+                        // Un error HTTP también deja la conexión abierta; uno de E/S no
+                        return e instanceof RestClientResponseException;
+                    }
+                }));
+            }
+            int opened = 0;
+            for (Future<Boolean> result : results) {
+                try {
+                    if (Boolean.TRUE.equals(result.get())) {
+                        opened++;
+                    }
+                } catch (ExecutionException e) {
+                    logger.debug("Conexión de calentamiento fallida con {}", endpoint, e.getCause());
+                }
+            }
+            return opened;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Lectura, JSON y formato del reporte sobre filas sintéticas; devuelve las filas procesadas
+    int warmCodePaths() throws Exception {
+        StringBuilder csv = new StringBuilder(iterations * 80 + 128);
+        csv.append("firstName,paternalLastName,maternalLastName,currencyOfIncome,monthlyIncome,loanAmount,")
+                .append("currency,interestRate,term,disbursementDate\n");
+        for (int i = 0; i < iterations; i++) {
+            csv.append("Cliente").append(i).append(",García,López,")
+                    .append(i % 2 == 0 ? "USD" : "PEN").append(',').append(1000 + i).append(".50,")
+                    .append(5000 + i).append(".00,USD,8.5,").append(12 + i % 48).append(",20/12/2025\n");
+        }
+        FlatFileItemReader<Data> reader = clientFileReader.clientItemReader(
+                new ByteArrayResource(csv.toString().getBytes(StandardCharsets.UTF_8)));
+        reader.open(new ExecutionContext());
+
+        ReportLineFormatter formatter = new ReportLineFormatter();
+        StringBuilder line = new StringBuilder(256);
+        int rows = 0;
+        try {
+            Data data;
+            while ((data = reader.read()) != null) {
+                // Mismo JSON que envía y recibe el processor
+                requestMapper.writeValueAsBytes(Map.of("firstName", data.getFirstName(),
+                        "monthlyIncome", data.getMonthlyIncome(), "currencyOfIncome", data.getCurrencyOfIncome()));
+                JsonNode client = responseMapper.readTree("[\"ok\",{\"clientId\":" + rows + "}]").get(1);
+                JsonNode simulation = responseMapper.readTree("[\"ok\",{\"simulationId\":" + rows
+                        + ",\"approved\":true,\"monthlyPayment\":450.25,\"totalPayment\":5403.0}]").get(1);
+                JsonNode loan = responseMapper.readTree("{\"loanId\":" + rows
+                        + ",\"payment\":[{\"dueDate\":\"2026-01-20\"}]}");
+
+                data.setClientId(client.get("clientId").asLong());
+                data.setSimulationId(simulation.get("simulationId").asLong());
+                data.setMonthlyPayment(simulation.get("monthlyPayment").asDouble());
+                data.setLoanId(loan.get("loanId").asLong());
+                data.setNextPaymentDate(LocalDate.parse(loan.path("payment").get(0).path("dueDate").asText()));
+                data.setTotalInterest(data.getMonthlyPayment() * data.getTerm() - data.getLoanAmount());
+
+                line.setLength(0);
+                formatter.appendRow(data, line);
+                rows++;
+            }
+        } finally {
+            reader.close();
+        }
+        return rows;
+    }
+}
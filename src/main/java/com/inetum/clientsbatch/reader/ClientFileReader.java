@@ -1,10 +1,12 @@
 package com.inetum.clientsbatch.reader;
 
 import com.inetum.clientsbatch.dto.Data;
+import com.inetum.clientsbatch.util.StringInterner;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import java.beans.PropertyEditorSupport;
@@ -16,6 +18,10 @@ import java.util.Map;
 public class ClientFileReader {
 
     public FlatFileItemReader<Data> clientItemReader() {
+        return clientItemReader(new ClassPathResource("clients.csv"));
+    }
+
+    public FlatFileItemReader<Data> clientItemReader(Resource resource) {
 
         BeanWrapperFieldSetMapper<Data> mapper = new BeanWrapperFieldSetMapper<>();
         mapper.setTargetType(Data.class);
@@ -32,9 +38,12 @@ public class ClientFileReader {
                 }
         ));
 
+        // Nombres deduplicados (caché LRU acotada) y monedas canonizadas con las constantes del enum
+        StringInterner names = new StringInterner();
+
         return new FlatFileItemReaderBuilder<Data>()
                 .name("clientItemReader")
-                .resource(new ClassPathResource("clients.csv"))
+                .resource(resource)
                 .delimited()
                 .names(
                         "firstName",
@@ -48,9 +57,15 @@ public class ClientFileReader {
                         "term",
                         "disbursementDate"
                 )
-                .fieldSetMapper(mapper)   // ⭐ con editor ya configurado
+                .fieldSetMapper(fieldSet -> canonicalize(mapper.mapFieldSet(fieldSet), names))   // ⭐ con editor ya configurado
                 .linesToSkip(1)
                 .build();
     }
-}
 
+    static Data canonicalize(Data data, StringInterner names) {
+        data.setFirstName(names.intern(data.getFirstName()));
+        data.setPaternalLastName(names.intern(data.getPaternalLastName()));
+        data.setMaternalLastName(names.intern(data.getMaternalLastName()));
+        return data;
+    }
+}
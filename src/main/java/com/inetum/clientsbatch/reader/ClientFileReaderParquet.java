@@ -1,14 +1,19 @@
 package com.inetum.clientsbatch.reader;
 
 import com.inetum.clientsbatch.dto.Data;
+import com.inetum.clientsbatch.util.StringInterner;
 import org.apache.parquet.hadoop.ParquetReader;
 import org.apache.parquet.example.data.Group;
 import org.apache.parquet.hadoop.example.GroupReadSupport;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
@@ -20,13 +25,26 @@ import java.util.List;
 
 /*
  Implementación simple: al primer read() carga todos los registros del parquet en memoria,
- los mapea a Data y luego itera retornando uno por uno.
+ los mapea a Data y luego itera retornando uno por uno. No guarda posición: un reinicio vuelve a leer
+ desde la primera fila, así que los jobs que lo usan no son reiniciables.
+
+ Perezoso: el job lee el CSV, así que ni este componente ni Hadoop/Parquet se inicializan al arrancar
+ salvo que alguien pida el reader.
 */
+@Lazy
 @Component
 public class ClientFileReaderParquet {
 
+    private static final Logger logger = LoggerFactory.getLogger(ClientFileReaderParquet.class);
+
+    @Lazy
     @Bean
     public ItemReader<Data> clientParquetItemReader() {
+        return clientParquetItemReader(new ClassPathResource("clients.parquet"));
+    }
+
+    // Reader sobre un fichero concreto; si no existe no entrega filas (entregas solo con CSV)
+    public ItemReader<Data> clientParquetItemReader(Resource resource) {
         return new ItemReader<Data>() {
             private Iterator<Data> iterator;
             private boolean initialized = false;
@@ -37,8 +55,10 @@ public class ClientFileReaderParquet {
                     initialized = true;
                     List<Data> list = new ArrayList<>();
 
-                    // Cargar recurso desde classpath
-                    ClassPathResource resource = new ClassPathResource("clients.parquet");
+                    if (!resource.exists()) {
+                        logger.warn("No existe el fichero Parquet {}: la fuente no aporta filas", resource);
+                        return null;
+                    }
                     File file = resource.getFile(); // en ejecución local. Si se empaqueta en JAR puede requerir otro enfoque (FS/HDFS).
                     Path path = new Path(file.getAbsolutePath());
 
@@ -49,6 +69,7 @@ public class ClientFileReaderParquet {
                                          .build()) {
 
                         Group group;
+                        StringInterner names = new StringInterner();
                         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
                         while ((group = reader.read()) != null) {
@@ -115,7 +136,7 @@ public class ClientFileReaderParquet {
                                     d.setDisbursementDate(LocalDate.parse(group.getValueToString(idx, 0), formatter));
                             } catch (Exception ignored) {}
 
-                            list.add(d);
+                            list.add(ClientFileReader.canonicalize(d, names));
                         }
                     }
 
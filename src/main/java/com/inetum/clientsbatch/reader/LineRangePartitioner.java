@@ -0,0 +1,78 @@
+package com.inetum.clientsbatch.reader;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ Reparte las filas del CSV en rangos contiguos, uno por partición. Cada contexto lleva el índice de la
+ partición y el rango [firstItem, maxItem) que el reader de la partición usa como currentItemCount y
+ maxItemCount, de modo que el segmento i del reporte contiene exactamente las filas del rango i.
+*/
+public class LineRangePartitioner implements Partitioner {
+
+    public static final String INDEX_KEY = "partition.index";
+    public static final String FIRST_ITEM_KEY = "partition.first-item";
+    public static final String MAX_ITEM_KEY = "partition.max-item";
+
+    private final Resource resource;
+    private final int linesToSkip;
+
+    public LineRangePartitioner(Resource resource, int linesToSkip) {
+        this.resource = resource;
+        this.linesToSkip = linesToSkip;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        int items = Math.max(0, countLines() - linesToSkip);
+        int partitions = Math.max(1, Math.min(gridSize, items));
+        int size = items / partitions;
+        int remainder = items % partitions;
+
+        Map<String, ExecutionContext> result = new LinkedHashMap<>();
+        int first = 0;
+        for (int i = 0; i < partitions; i++) {
+            int count = size + (i < remainder ? 1 : 0);
+            ExecutionContext context = new ExecutionContext();
+            context.putInt(INDEX_KEY, i);
+            context.putInt(FIRST_ITEM_KEY, first);
+            context.putInt(MAX_ITEM_KEY, first + count);
+            result.put("partition" + i, context);
+            first += count;
+        }
+        return result;
+    }
+
+    // Cuenta líneas no vacías sin decodificar el fichero
+    private int countLines() {
+        try (InputStream in = resource.getInputStream()) {
+            byte[] buffer = new byte[64 * 1024];
+            int lines = 0;
+            boolean pending = false;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (b == '\n') {
+                        if (pending) {
+                            lines++;
+                        }
+                        pending = false;
+                    } else if (b != '\r') {
+                        pending = true;
+                    }
+                }
+            }
+            return pending ? lines + 1 : lines;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer " + resource.getDescription(), e);
+        }
+    }
+}
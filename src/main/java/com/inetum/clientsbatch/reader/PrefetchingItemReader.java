@@ -0,0 +1,211 @@
+package com.inetum.clientsbatch.reader;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.util.ExecutionContextUserSupport;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Decorador que lee por adelantado: un hilo productor decodifica filas del reader delegado
+ (CSV o Parquet) y las deja en una cola acotada mientras el processor trabaja con el chunk actual.
+
+ El estado de reinicio que se guarda es el del consumidor (filas entregadas al step), nunca el del
+ productor: al reabrir se descartan esas filas del delegado antes de volver a llenar la cola. La clave
+ lleva delante el nombre del reader, como en los readers de Spring, para que dos prefetch en el mismo
+ contexto (split, worker de partición reutilizado) no se pisen el estado.
+*/
+public class PrefetchingItemReader<T> implements ItemStreamReader<T> {
+
+    static final String READ_COUNT_KEY = "prefetch.read.count";
+
+    private static final Logger logger = LoggerFactory.getLogger(PrefetchingItemReader.class);
+    private static final Object END = new Object();
+
+    private final ItemReader<T> delegate;
+    private final int queueCapacity;
+    private final String name;
+    private final ExecutionContextUserSupport contextKeys;
+
+    private BlockingQueue<Object> queue;
+    private Thread producer;
+    private volatile boolean running;
+    private boolean exhausted;
+    private long consumed;
+    private boolean saveState = true;
+    private Gauge queueGauge;
+
+    // Métricas del nivel de llenado de la cola
+    private final AtomicLong producerWaits = new AtomicLong();
+    private final AtomicLong consumerWaits = new AtomicLong();
+    private long fillSamples;
+    private long fillTotal;
+
+    public PrefetchingItemReader(ItemReader<T> delegate, int queueCapacity, String name) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("La capacidad de la cola debe ser mayor que 0");
+        }
+        this.delegate = delegate;
+        this.queueCapacity = queueCapacity;
+        this.name = name;
+        this.contextKeys = new ExecutionContextUserSupport(name);
+    }
+
+    // Sin estado guardado el step no puede reanudarse desde la última fila confirmada (como en FlatFileItemReader)
+    public void setSaveState(boolean saveState) {
+        this.saveState = saveState;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        long skip = executionContext.getLong(contextKeys.getKey(READ_COUNT_KEY), 0L);
+
+        // El delegado siempre se abre desde el inicio: su propio contador iría por delante del consumidor
+        if (delegate instanceof ItemStream stream) {
+            stream.open(new ExecutionContext());
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        consumed = skip;
+        exhausted = false;
+        running = true;
+        producerWaits.set(0);
+        consumerWaits.set(0);
+        fillSamples = 0;
+        fillTotal = 0;
+
+        BlockingQueue<Object> target = queue;
+        queueGauge = Gauge.builder("clients.batch.prefetch.queue.size", target, BlockingQueue::size)
+                .tag("reader", name)
+                .description("Filas decodificadas esperando en la cola de prefetch")
+                .register(Metrics.globalRegistry);
+
+        producer = new Thread(() -> produce(target, skip), name + "-prefetch");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    private void produce(BlockingQueue<Object> target, long skip) {
+        try {
+            for (long i = 0; i < skip && running; i++) {
+                if (delegate.read() == null) {
+                    break;
+                }
+            }
+            T item;
+            while (running && (item = delegate.read()) != null) {
+                put(target, item);
+            }
+            put(target, END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            try {
+                put(target, new Failure(e));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void put(BlockingQueue<Object> target, Object element) throws InterruptedException {
+        if (!target.offer(element)) {
+            producerWaits.incrementAndGet();
+            while (running && !target.offer(element, 100, TimeUnit.MILLISECONDS)) {
+                // la cola sigue llena, el consumidor va más lento que la lectura
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T read() throws Exception {
+        if (exhausted) {
+            return null;
+        }
+        fillSamples++;
+        fillTotal += queue.size();
+
+        Object element = queue.poll();
+        if (element == null) {
+            consumerWaits.incrementAndGet();
+            element = queue.take();
+        }
+        if (element == END) {
+            exhausted = true;
+            return null;
+        }
+        if (element instanceof Failure failure) {
+            exhausted = true;
+            throw failure.cause;
+        }
+        consumed++;
+        return (T) element;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (saveState) {
+            executionContext.putLong(contextKeys.getKey(READ_COUNT_KEY), consumed);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        running = false;
+        if (producer != null) {
+            producer.interrupt();
+            try {
+                producer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            producer = null;
+        }
+        if (queueGauge != null) {
+            Metrics.globalRegistry.remove(queueGauge);
+            queueGauge = null;
+        }
+        if (delegate instanceof ItemStream stream) {
+            stream.close();
+        }
+        if (fillSamples > 0) {
+            logger.info("Prefetch {}: llenado medio de cola {}/{} | esperas productor: {} | esperas consumidor: {}",
+                    name, String.format("%.1f", getAverageFillLevel()), queueCapacity,
+                    producerWaits.get(), consumerWaits.get());
+        }
+    }
+
+    public int getQueueSize() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public double getAverageFillLevel() {
+        return fillSamples == 0 ? 0.0 : (double) fillTotal / fillSamples;
+    }
+
+    public long getProducerWaits() {
+        return producerWaits.get();
+    }
+
+    public long getConsumerWaits() {
+        return consumerWaits.get();
+    }
+
+    private record Failure(Exception cause) {
+    }
+}
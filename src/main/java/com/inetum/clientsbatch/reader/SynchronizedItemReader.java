@@ -0,0 +1,70 @@
+package com.inetum.clientsbatch.reader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+
+/*
+ Decorador para steps multihilo: serializa read() sobre el reader delegado (CSV o Parquet), que no es
+ seguro entre hilos. A diferencia de SynchronizedItemStreamReader de Spring admite delegados que no son
+ ItemStream, como el reader Parquet.
+
+ No guarda estado de reinicio: con varios hilos los chunks confirman en otro orden que el de lectura y
+ los writers del step (reporte concurrente, segmentos) no pueden reanudarse, así que esos jobs no son
+ reiniciables (preventRestart) y el delegado se abre siempre desde el inicio.
+*/
+public class SynchronizedItemReader<T> implements ItemStreamReader<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SynchronizedItemReader.class);
+
+    private final ItemReader<T> delegate;
+    private final String name;
+    private long readCount;
+    private boolean exhausted;
+
+    public SynchronizedItemReader(ItemReader<T> delegate, String name) {
+        this.delegate = delegate;
+        this.name = name;
+    }
+
+    @Override
+    public synchronized void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream stream) {
+            stream.open(new ExecutionContext());
+        }
+        readCount = 0;
+        exhausted = false;
+    }
+
+    @Override
+    public synchronized T read() throws Exception {
+        if (exhausted) {
+            return null;
+        }
+        T item = delegate.read();
+        if (item == null) {
+            exhausted = true;
+            return null;
+        }
+        readCount++;
+        return item;
+    }
+
+    @Override
+    public synchronized void close() throws ItemStreamException {
+        if (delegate instanceof ItemStream stream) {
+            stream.close();
+        }
+        if (readCount > 0) {
+            logger.info("Lectura sincronizada {}: {} filas entregadas", name, readCount);
+        }
+    }
+
+    public synchronized long getReadCount() {
+        return readCount;
+    }
+}
@@ -0,0 +1,25 @@
+package com.inetum.clientsbatch.remote;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Lado manager del canal entre el manager y los workers. Los chunks van a una cola común de la que tira
+ cada worker cuando tiene capacidad, así el reparto se equilibra solo entre workers rápidos y lentos.
+
+ Implementaciones: InMemoryChunkChannel (broker embebido, workers como hilos de la misma JVM) y
+ SocketChunkChannel (workers en otras JVM conectados por TCP).
+*/
+public interface ChunkChannel extends Closeable {
+
+    // Deja el canal listo para enviar; en el canal por sockets espera a que se conecten los workers
+    void open() throws IOException;
+
+    void send(ChunkRequest request) throws IOException, InterruptedException;
+
+    // Siguiente respuesta de cualquier worker, o null si no llega ninguna en el tiempo indicado
+    ChunkResponse poll(long timeout, TimeUnit unit) throws IOException, InterruptedException;
+
+    int getWorkerCount();
+}
@@ -0,0 +1,11 @@
+package com.inetum.clientsbatch.remote;
+
+/*
+ Transporte entre manager y workers:
+  - IN_MEMORY: colas en memoria, los workers son hilos del propio manager (pruebas y una sola máquina).
+  - SOCKET: el manager escucha en un puerto TCP y los workers son otras JVM que se conectan a él.
+*/
+public enum ChunkChannelType {
+    IN_MEMORY,
+    SOCKET
+}
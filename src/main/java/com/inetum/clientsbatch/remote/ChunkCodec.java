@@ -0,0 +1,53 @@
+package com.inetum.clientsbatch.remote;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/*
+ Tramas del canal por sockets: longitud (int) seguida del mensaje en JSON. Data no es Serializable y
+ JSON deja ver los mensajes con cualquier herramienta de red.
+*/
+final class ChunkCodec {
+
+    static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private ChunkCodec() {
+    }
+
+    static void write(DataOutputStream out, Object message) throws IOException {
+        byte[] bytes = MAPPER.writeValueAsBytes(message);
+        synchronized (out) {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.flush();
+        }
+    }
+
+    // null si el otro extremo cerró la conexión entre dos tramas
+    static <T> T read(DataInputStream in, Class<T> type) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Trama de tamaño inválido: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return MAPPER.readValue(bytes, type);
+    }
+}
@@ -0,0 +1,22 @@
+package com.inetum.clientsbatch.remote;
+
+import com.inetum.clientsbatch.dto.Data;
+
+import java.util.List;
+
+/*
+ Chunk leído por el manager y enviado a un worker. La secuencia END indica al worker que no habrá más
+ chunks: cierra su segmento del reporte y contesta con el acuse final.
+*/
+public record ChunkRequest(long sequence, List<Data> items) {
+
+    static final long END = -1L;
+
+    public static ChunkRequest end() {
+        return new ChunkRequest(END, List.of());
+    }
+
+    public boolean isEnd() {
+        return sequence == END;
+    }
+}
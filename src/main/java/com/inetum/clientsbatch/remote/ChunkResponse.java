@@ -0,0 +1,29 @@
+package com.inetum.clientsbatch.remote;
+
+/*
+ Respuesta de un worker a un ChunkRequest: filas escritas y préstamos aprobados del chunk, o el error
+ que lo hizo fallar. El acuse final (secuencia END) lleva el fichero de segmento del worker.
+*/
+public record ChunkResponse(long sequence, String workerId, int written, int approved,
+                            String segmentFile, String error) {
+
+    public static ChunkResponse success(long sequence, String workerId, int written, int approved) {
+        return new ChunkResponse(sequence, workerId, written, approved, null, null);
+    }
+
+    public static ChunkResponse failure(long sequence, String workerId, String error) {
+        return new ChunkResponse(sequence, workerId, 0, 0, null, error);
+    }
+
+    public static ChunkResponse end(String workerId, String segmentFile) {
+        return new ChunkResponse(ChunkRequest.END, workerId, 0, 0, segmentFile, null);
+    }
+
+    public boolean isEnd() {
+        return sequence == ChunkRequest.END;
+    }
+
+    public boolean isFailure() {
+        return error != null;
+    }
+}
@@ -0,0 +1,123 @@
+package com.inetum.clientsbatch.remote;
+
+import com.inetum.clientsbatch.dto.Data;
+import com.inetum.clientsbatch.writer.FsyncPolicy;
+import com.inetum.clientsbatch.writer.ReportWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ Bucle de un worker: toma chunks del canal, pasa cada fila por el processor (validación y llamadas a la
+ API) y escribe las resultantes en su segmento del reporte (ReportWriter.segment). Contesta cada chunk
+ con las filas escritas y los aprobados; si el chunk falla contesta con el error y sigue con el siguiente,
+ el manager decide si el step falla.
+
+ Al recibir END cierra el segmento y lo envía en el acuse final para que el manager componga el reporte.
+ El segmento se escribe con ruta absoluta: manager y workers deben ver el mismo sistema de ficheros.
+*/
+public class ChunkWorker implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkWorker.class);
+
+    private final String workerId;
+    private final ChunkWorkerChannel channel;
+    private final ItemProcessor<Data, Data> processor;
+    private final String segmentFile;
+    private final FsyncPolicy fsyncPolicy;
+    private long chunks;
+
+    public ChunkWorker(String workerId, ChunkWorkerChannel channel, ItemProcessor<Data, Data> processor,
+                       String segmentFile, FsyncPolicy fsyncPolicy) {
+        this.workerId = workerId;
+        this.channel = channel;
+        this.processor = processor;
+        this.segmentFile = Path.of(segmentFile).toAbsolutePath().toString();
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    @Override
+    public void run() {
+        try {
+            work();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Worker {}: error en el canal con el manager", workerId, e);
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Worker {}: no se pudo cerrar el canal", workerId);
+            }
+        }
+    }
+
+    void work() throws IOException, InterruptedException {
+        ReportWriter writer = ReportWriter.segment(segmentFile);
+        writer.setFsyncPolicy(fsyncPolicy);
+        writer.open(new ExecutionContext());
+        try {
+            while (true) {
+                ChunkRequest request = channel.take();
+                if (request == null) {
+                    logger.warn("Worker {}: el manager cerró el canal sin enviar END", workerId);
+                    return;
+                }
+                if (request.isEnd()) {
+                    channel.reply(finish(writer));
+                    logger.info("Worker {}: {} chunks procesados", workerId, chunks);
+                    return;
+                }
+                channel.reply(process(request, writer));
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private ChunkResponse process(ChunkRequest request, ReportWriter writer) {
+        try {
+            List<Data> output = new ArrayList<>(request.items().size());
+            for (Data item : request.items()) {
+                Data result = processor.process(item);
+                if (result != null) {
+                    output.add(result);
+                }
+            }
+            writer.write(new Chunk<>(output));
+            chunks++;
+
+            int approved = 0;
+            for (Data data : output) {
+                if (data.getLoanId() != null) {
+                    approved++;
+                }
+            }
+            return ChunkResponse.success(request.sequence(), workerId, output.size(), approved);
+        } catch (Exception e) {
+            logger.warn("Worker {}: falló el chunk {}", workerId, request.sequence(), e);
+            String reason = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            return ChunkResponse.failure(request.sequence(), workerId, reason);
+        }
+    }
+
+    // Cierra el segmento igual que al final de un step de partición
+    private ChunkResponse finish(ReportWriter writer) {
+        StepExecution stepExecution = new StepExecution("remoteWorker-" + workerId, new JobExecution(0L));
+        writer.afterStep(stepExecution);
+        if (stepExecution.getExecutionContext().isEmpty()) {
+            return ChunkResponse.failure(ChunkRequest.END, workerId, "No se pudo cerrar el segmento " + segmentFile);
+        }
+        return ChunkResponse.end(workerId, segmentFile);
+    }
+}
@@ -0,0 +1,14 @@
+package com.inetum.clientsbatch.remote;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/*
+ Lado worker del canal: recibe chunks del manager y devuelve una respuesta por cada uno.
+*/
+public interface ChunkWorkerChannel extends Closeable {
+
+    ChunkRequest take() throws IOException, InterruptedException;
+
+    void reply(ChunkResponse response) throws IOException;
+}
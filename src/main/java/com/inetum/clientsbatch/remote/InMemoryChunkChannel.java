@@ -0,0 +1,63 @@
+package com.inetum.clientsbatch.remote;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ Broker embebido: una cola de peticiones compartida por todos los workers y una cola de respuestas.
+ Cada llamada a worker() da de alta un worker que tira de la misma cola de peticiones.
+*/
+public class InMemoryChunkChannel implements ChunkChannel {
+
+    private final BlockingQueue<ChunkRequest> requests = new LinkedBlockingQueue<>();
+    private final BlockingQueue<ChunkResponse> responses = new LinkedBlockingQueue<>();
+    private final AtomicInteger workers = new AtomicInteger();
+
+    public ChunkWorkerChannel worker() {
+        workers.incrementAndGet();
+        return new ChunkWorkerChannel() {
+            @Override
+            public ChunkRequest take() throws InterruptedException {
+                return requests.take();
+            }
+
+            @Override
+            public void reply(ChunkResponse response) {
+                responses.add(response);
+            }
+
+            @Override
+            public void close() {
+                // Las colas son del canal
+            }
+        };
+    }
+
+    @Override
+    public void open() {
+        requests.clear();
+        responses.clear();
+    }
+
+    @Override
+    public void send(ChunkRequest request) {
+        requests.add(request);
+    }
+
+    @Override
+    public ChunkResponse poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return responses.poll(timeout, unit);
+    }
+
+    @Override
+    public int getWorkerCount() {
+        return workers.get();
+    }
+
+    @Override
+    public void close() {
+        requests.clear();
+    }
+}
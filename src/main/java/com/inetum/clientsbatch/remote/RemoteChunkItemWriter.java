@@ -0,0 +1,165 @@
+package com.inetum.clientsbatch.remote;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Writer del step del manager: en lugar de procesar y escribir, envía cada chunk leído a los workers por el
+ ChunkChannel. Como mucho hay maxInFlightPerWorker chunks sin contestar por worker; al llegar al límite
+ el reader espera a la siguiente respuesta, así el manager no lee el CSV entero en memoria y el
+ rendimiento lo marca el número de workers.
+
+ Un chunk fallido en un worker hace fallar el step del manager. finish() (RemoteReportTasklet) envía
+ END a cada worker, espera los chunks pendientes y los acuses finales con los segmentos del reporte.
+
+ Con el canal en memoria los workers son hilos de esta JVM (addLocalWorker) que se arrancan con el job.
+ write() vuelve sin esperar el acuse del chunk, así que el commit del manager no garantiza que sus filas
+ estén escritas: el reader del step no guarda posición y el job se marca preventRestart (ver BatchConfig).
+ Tras un fallo se relanza el fichero completo.
+*/
+public class RemoteChunkItemWriter implements ItemWriter<Data>, JobExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteChunkItemWriter.class);
+
+    private final ChunkChannel channel;
+    private final int maxInFlightPerWorker;
+    private final long responseTimeoutMillis;
+    private final List<Runnable> localWorkers = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final Map<String, String> segments = new TreeMap<>();
+    private final Map<String, Integer> chunksPerWorker = new TreeMap<>();
+    private long sequence;
+    private int inFlight;
+    private long totalRead;
+    private long totalApproved;
+
+    public RemoteChunkItemWriter(ChunkChannel channel, int maxInFlightPerWorker, long responseTimeoutMillis) {
+        if (maxInFlightPerWorker < 1) {
+            throw new IllegalArgumentException("Debe haber al menos un chunk en vuelo por worker");
+        }
+        this.channel = channel;
+        this.maxInFlightPerWorker = maxInFlightPerWorker;
+        this.responseTimeoutMillis = responseTimeoutMillis;
+    }
+
+    public void addLocalWorker(Runnable worker) {
+        localWorkers.add(worker);
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        sequence = 0;
+        inFlight = 0;
+        totalRead = 0;
+        totalApproved = 0;
+        segments.clear();
+        chunksPerWorker.clear();
+        try {
+            channel.open();
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo abrir el canal con los workers", e);
+        }
+        for (int i = 0; i < localWorkers.size(); i++) {
+            Thread thread = new Thread(localWorkers.get(i), "remote-worker-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        if (channel.getWorkerCount() < 1) {
+            throw new IllegalStateException("No hay workers registrados en el canal");
+        }
+        logger.info("Manager: {} workers, hasta {} chunks en vuelo", channel.getWorkerCount(), window());
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("No se pudo cerrar el canal con los workers", e);
+        }
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        threads.clear();
+    }
+
+    private int window() {
+        return channel.getWorkerCount() * maxInFlightPerWorker;
+    }
+
+    @Override
+    public void write(Chunk<? extends Data> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        channel.send(new ChunkRequest(sequence++, new ArrayList<>(chunk.getItems())));
+        inFlight++;
+
+        ChunkResponse response;
+        while ((response = channel.poll(0, TimeUnit.MILLISECONDS)) != null) {
+            handle(response);
+        }
+        while (inFlight >= window()) {
+            awaitResponse();
+        }
+    }
+
+    public Result finish() throws IOException, InterruptedException {
+        int workers = channel.getWorkerCount();
+        for (int i = 0; i < workers; i++) {
+            channel.send(ChunkRequest.end());
+        }
+        while (inFlight > 0 || segments.size() < workers) {
+            awaitResponse();
+        }
+        logger.info("Chunks por worker: {}", chunksPerWorker);
+
+        List<Path> files = new ArrayList<>(segments.size());
+        for (String segment : segments.values()) {
+            files.add(Path.of(segment));
+        }
+        return new Result(totalRead, totalApproved, files);
+    }
+
+    private void awaitResponse() throws IOException, InterruptedException {
+        ChunkResponse response = channel.poll(responseTimeoutMillis, TimeUnit.MILLISECONDS);
+        if (response == null) {
+            throw new IllegalStateException("Sin respuesta de los workers en " + responseTimeoutMillis
+                    + " ms (" + inFlight + " chunks en vuelo)");
+        }
+        handle(response);
+    }
+
+    private void handle(ChunkResponse response) {
+        if (response.isFailure()) {
+            throw new IllegalStateException("El worker " + response.workerId() + " falló el chunk "
+                    + response.sequence() + ": " + response.error());
+        }
+        if (response.isEnd()) {
+            segments.put(response.workerId(), response.segmentFile());
+            return;
+        }
+        inFlight--;
+        totalRead += response.written();
+        totalApproved += response.approved();
+        chunksPerWorker.merge(response.workerId(), 1, Integer::sum);
+    }
+
+    // Totales de todos los workers y sus segmentos ordenados por id de worker
+    public record Result(long totalRead, long totalApproved, List<Path> segments) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.inetum.clientsbatch.remote;
+
+import com.inetum.clientsbatch.writer.FsyncPolicy;
+import com.inetum.clientsbatch.writer.ReportAssembler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+ Step final del manager: cierra el reparto (END a cada worker), espera los segmentos y compone report.txt
+ con ReportAssembler, igual que la mezcla de particiones.
+*/
+public class RemoteReportTasklet implements Tasklet {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteReportTasklet.class);
+
+    private final RemoteChunkItemWriter remoteWriter;
+    private final Path reportFile;
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.AT_END;
+
+    public RemoteReportTasklet(RemoteChunkItemWriter remoteWriter, String reportFile) {
+        this.remoteWriter = remoteWriter;
+        this.reportFile = Path.of(reportFile);
+    }
+
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        RemoteChunkItemWriter.Result result = remoteWriter.finish();
+
+        ReportAssembler.assemble(reportFile, result.totalRead(), result.totalApproved(), result.segments(),
+                fsyncPolicy);
+        for (Path segment : result.segments()) {
+            Files.deleteIfExists(segment);
+        }
+
+        logger.info("\n✓ Reporte generado exitosamente: {} ({} workers)", reportFile, result.segments().size());
+        logger.info("Total de préstamos generados: {}", result.totalApproved());
+        return RepeatStatus.FINISHED;
+    }
+}
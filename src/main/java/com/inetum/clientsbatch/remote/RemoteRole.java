@@ -0,0 +1,13 @@
+package com.inetum.clientsbatch.remote;
+
+/*
+ Papel de esta JVM en el despliegue manager/worker (batch.remote.role):
+  - NONE: el job completo en una sola JVM (por defecto).
+  - MANAGER: lee el CSV y reparte los chunks a los workers; compone el reporte final.
+  - WORKER: no lanza el job; procesa y escribe los chunks que le envía el manager.
+*/
+public enum RemoteRole {
+    NONE,
+    MANAGER,
+    WORKER
+}
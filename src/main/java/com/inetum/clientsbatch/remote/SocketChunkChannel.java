@@ -0,0 +1,172 @@
+package com.inetum.clientsbatch.remote;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Canal del manager por TCP: escucha en un puerto y espera a que se conecten los workers (otras JVM,
+ ver SocketChunkWorkerChannel). Por cada conexión hay un hilo que envía y otro que recibe.
+
+ Las peticiones van a una cola común y el hilo de envío de cada worker solo saca la siguiente cuando su
+ worker tiene hueco (maxInFlightPerWorker chunks sin contestar), así un worker lento no acumula trabajo
+ que otro podría estar haciendo. Tras enviar el END a su worker, el hilo de envío termina.
+
+ Si un worker se desconecta antes de su acuse final se publica una respuesta de error: sus chunks en
+ vuelo se han perdido y el manager hace fallar el step.
+*/
+public class SocketChunkChannel implements ChunkChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(SocketChunkChannel.class);
+
+    private final int port;
+    private final int expectedWorkers;
+    private final int maxInFlightPerWorker;
+    private final long acceptTimeoutMillis;
+    private final BlockingQueue<ChunkRequest> requests = new LinkedBlockingQueue<>();
+    private final BlockingQueue<ChunkResponse> responses = new LinkedBlockingQueue<>();
+    private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+    private ServerSocket serverSocket;
+
+    public SocketChunkChannel(int port, int expectedWorkers, int maxInFlightPerWorker, long acceptTimeoutMillis) {
+        if (expectedWorkers < 1 || maxInFlightPerWorker < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un worker y un chunk en vuelo por worker");
+        }
+        this.port = port;
+        this.expectedWorkers = expectedWorkers;
+        this.maxInFlightPerWorker = maxInFlightPerWorker;
+        this.acceptTimeoutMillis = acceptTimeoutMillis;
+    }
+
+    @Override
+    public void open() throws IOException {
+        close();
+        serverSocket = new ServerSocket(port);
+        serverSocket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, Math.max(1, acceptTimeoutMillis)));
+        logger.info("Esperando {} workers en el puerto {}", expectedWorkers, serverSocket.getLocalPort());
+
+        while (sockets.size() < expectedWorkers) {
+            try {
+                connect(serverSocket.accept());
+            } catch (SocketTimeoutException e) {
+                break;
+            }
+        }
+        if (sockets.isEmpty()) {
+            throw new IOException("Ningún worker se conectó al puerto " + serverSocket.getLocalPort()
+                    + " en " + acceptTimeoutMillis + " ms");
+        }
+        if (sockets.size() < expectedWorkers) {
+            logger.warn("Solo se conectaron {} de {} workers: se continúa con ellos", sockets.size(), expectedWorkers);
+        }
+    }
+
+    private void connect(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        int index = sockets.size();
+        String peer = String.valueOf(socket.getRemoteSocketAddress());
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        Semaphore credits = new Semaphore(maxInFlightPerWorker);
+        sockets.add(socket);
+
+        start(new Thread(() -> dispatch(out, credits, peer), "chunk-send-" + index));
+        start(new Thread(() -> receive(in, credits, peer), "chunk-receive-" + index));
+        logger.info("Worker conectado desde {}", peer);
+    }
+
+    private void start(Thread thread) {
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+    }
+
+    private void dispatch(DataOutputStream out, Semaphore credits, String peer) {
+        ChunkRequest request = null;
+        try {
+            while (true) {
+                credits.acquire();
+                request = requests.take();
+                ChunkCodec.write(out, request);
+                if (request.isEnd()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            long sequence = request == null ? ChunkRequest.END : request.sequence();
+            responses.add(ChunkResponse.failure(sequence, peer, "No se pudo enviar el chunk: " + e.getMessage()));
+        }
+    }
+
+    private void receive(DataInputStream in, Semaphore credits, String peer) {
+        try {
+            while (true) {
+                ChunkResponse response = ChunkCodec.read(in, ChunkResponse.class);
+                if (response == null) {
+                    responses.add(ChunkResponse.failure(ChunkRequest.END, peer,
+                            "El worker cerró la conexión antes del acuse final"));
+                    return;
+                }
+                responses.add(response);
+                if (response.isEnd()) {
+                    return;
+                }
+                credits.release();
+            }
+        } catch (IOException e) {
+            if (!Thread.currentThread().isInterrupted() && serverSocket != null && !serverSocket.isClosed()) {
+                responses.add(ChunkResponse.failure(ChunkRequest.END, peer, "Conexión perdida: " + e.getMessage()));
+            }
+        }
+    }
+
+    @Override
+    public void send(ChunkRequest request) {
+        requests.add(request);
+    }
+
+    @Override
+    public ChunkResponse poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return responses.poll(timeout, unit);
+    }
+
+    @Override
+    public int getWorkerCount() {
+        return sockets.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+            serverSocket = null;
+        }
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        sockets.clear();
+        threads.clear();
+        requests.clear();
+        responses.clear();
+    }
+}
@@ -0,0 +1,64 @@
+package com.inetum.clientsbatch.remote;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/*
+ Lado worker del canal por TCP. Los workers se pueden arrancar antes que el manager: connect() reintenta
+ hasta que el manager escucha o vence el plazo. take() devuelve null si el manager cierra la conexión.
+*/
+public class SocketChunkWorkerChannel implements ChunkWorkerChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(SocketChunkWorkerChannel.class);
+    private static final long RETRY_MILLIS = 500;
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    private SocketChunkWorkerChannel(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        this.socket = socket;
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    public static SocketChunkWorkerChannel connect(String host, int port, long timeoutMillis)
+            throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            try {
+                SocketChunkWorkerChannel channel = new SocketChunkWorkerChannel(new Socket(host, port));
+                logger.info("Conectado al manager {}:{}", host, port);
+                return channel;
+            } catch (IOException e) {
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new IOException("No se pudo conectar con el manager " + host + ":" + port, e);
+                }
+                Thread.sleep(RETRY_MILLIS);
+            }
+        }
+    }
+
+    @Override
+    public ChunkRequest take() throws IOException {
+        return ChunkCodec.read(in, ChunkRequest.class);
+    }
+
+    @Override
+    public void reply(ChunkResponse response) throws IOException {
+        ChunkCodec.write(out, response);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,247 @@
+package com.inetum.clientsbatch.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/*
+ Modo servidor: la JVM queda residente con el contexto caliente (pool HTTP del processor, clases cargadas,
+ código ya compilado por el JIT) y lanza importClientsJob por cada fichero nuevo del buzón de entrada.
+
+ Un hilo vigila el buzón con WatchService y encola cada fichero que encaja con el patrón; un pool de
+ `parallelism` hilos lanza los jobs (el JobLauncher es síncrono, así que cada hilo ejecuta un job entero).
+ Antes de lanzar se espera a que el tamaño del fichero deje de cambiar durante settleMillis, por si el
+ productor lo sigue escribiendo; los nombres .tmp y .part se ignoran, mejor aún si el productor los
+ renombra al terminar. Al arrancar se encolan también los ficheros que ya estuviesen en el buzón.
+
+ Cada job recibe inputFile, outputDir y reportName (<fichero>-report.txt) y un instante de lanzamiento
+ para que cada fichero sea una instancia nueva. El fichero se mueve a processed/ o failed/ según el
+ resultado, así no se vuelve a procesar tras reiniciar el servidor.
+
+ Los streams de sesión (p. ej. el fichero de rechazados) se abren al arrancar y se cierran al parar,
+ porque los comparten todos los jobs lanzados.
+*/
+public class InboxJobServer implements SmartLifecycle {
+
+    static final String PROCESSED_DIR = "processed";
+    static final String FAILED_DIR = "failed";
+
+    private static final Logger logger = LoggerFactory.getLogger(InboxJobServer.class);
+
+    private final JobLauncher jobLauncher;
+    private final Function<Path, Job> jobFactory;
+    private final Path inbox;
+    private final Path outputDir;
+    private final int parallelism;
+    private final long settleMillis;
+    private final PathMatcher matcher;
+    private final List<ItemStream> sessionStreams = new ArrayList<>();
+    private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger launched = new AtomicInteger();
+    private ExecutorService executor;
+    private Thread watcher;
+    private volatile boolean running;
+
+    public InboxJobServer(JobLauncher jobLauncher, Function<Path, Job> jobFactory, String inbox, String outputDir,
+                          String filePattern, int parallelism, long settleMillis) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("El paralelismo del servidor debe ser al menos 1");
+        }
+        this.jobLauncher = jobLauncher;
+        this.jobFactory = jobFactory;
+        this.inbox = Path.of(inbox).toAbsolutePath();
+        this.outputDir = Path.of(outputDir).toAbsolutePath();
+        this.parallelism = parallelism;
+        this.settleMillis = settleMillis;
+        this.matcher = this.inbox.getFileSystem().getPathMatcher("glob:" + filePattern);
+    }
+
+    public void addSessionStream(ItemStream stream) {
+        sessionStreams.add(stream);
+    }
+
+    @Override
+    public void start() {
+        try {
+            Files.createDirectories(inbox.resolve(PROCESSED_DIR));
+            Files.createDirectories(inbox.resolve(FAILED_DIR));
+            Files.createDirectories(outputDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo preparar el buzón " + inbox, e);
+        }
+        for (ItemStream stream : sessionStreams) {
+            stream.open(new ExecutionContext());
+        }
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(parallelism,
+                runnable -> new Thread(runnable, "inbox-job-" + threads.getAndIncrement()));
+        running = true;
+        // Hilo no daemon: mantiene viva la JVM aunque la aplicación no sea web
+        watcher = new Thread(this::watch, "inbox-watcher");
+        watcher.start();
+        logger.info("Servidor de jobs: vigilando {} ({} jobs en paralelo), reportes en {}", inbox, parallelism,
+                outputDir);
+    }
+
+    private void watch() {
+        try (WatchService watchService = inbox.getFileSystem().newWatchService()) {
+            inbox.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            scan();
+            while (running) {
+                WatchKey key = watchService.poll(1, TimeUnit.SECONDS);
+                if (key == null) {
+                    continue;
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Se han perdido eventos: se vuelve a recorrer el buzón
+                        scan();
+                    } else {
+                        submit(inbox.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    logger.error("El buzón {} ya no es accesible: el servidor deja de vigilarlo", inbox);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("No se pudo vigilar el buzón {}", inbox, e);
+        }
+    }
+
+    private void scan() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(inbox)) {
+            for (Path file : files) {
+                submit(file);
+            }
+        }
+    }
+
+    void submit(Path file) {
+        String name = file.getFileName().toString();
+        if (!Files.isRegularFile(file) || name.startsWith(".") || name.endsWith(".tmp") || name.endsWith(".part")
+                || !matcher.matches(file.getFileName())) {
+            return;
+        }
+        // ENTRY_CREATE y ENTRY_MODIFY llegan varias veces por fichero: solo se encola una
+        if (pending.add(file)) {
+            executor.execute(() -> launch(file));
+        }
+    }
+
+    private void launch(Path file) {
+        try {
+            awaitStable(file);
+            String name = file.getFileName().toString();
+            String baseName = name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : name;
+            JobParameters parameters = new JobParametersBuilder()
+                    .addString("inputFile", file.toString())
+                    .addString("outputDir", outputDir.toString())
+                    .addString("reportName", baseName + "-report.txt")
+                    .addLong("launchTime", System.currentTimeMillis())
+                    .toJobParameters();
+
+            long start = System.nanoTime();
+            JobExecution execution = jobLauncher.run(jobFactory.apply(file), parameters);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            boolean completed = execution.getStatus() == BatchStatus.COMPLETED;
+            logger.info("Job #{} para {}: {} en {} ms", launched.incrementAndGet(), name, execution.getStatus(),
+                    millis);
+            archive(file, completed ? PROCESSED_DIR : FAILED_DIR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("No se pudo lanzar el job para {}", file, e);
+            archive(file, FAILED_DIR);
+        } finally {
+            pending.remove(file);
+        }
+    }
+
+    // Espera a que el productor termine de escribir: mismo tamaño en dos lecturas separadas settleMillis
+    private void awaitStable(Path file) throws IOException, InterruptedException {
+        long size = Files.size(file);
+        while (true) {
+            Thread.sleep(settleMillis);
+            long current = Files.size(file);
+            if (current == size) {
+                return;
+            }
+            size = current;
+        }
+    }
+
+    private void archive(Path file, String directory) {
+        try {
+            if (Files.exists(file)) {
+                Files.move(file, inbox.resolve(directory).resolve(file.getFileName()),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warn("No se pudo mover {} a {}", file, directory, e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            if (watcher != null) {
+                watcher.join();
+            }
+            if (executor != null) {
+                // Los jobs en curso terminan; los encolados se lanzan antes de cerrar
+                executor.shutdown();
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (ItemStream stream : sessionStreams) {
+                stream.close();
+            }
+        }
+        logger.info("Servidor de jobs detenido: {} jobs lanzados", launched.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getLaunchedCount() {
+        return launched.get();
+    }
+}
@@ -0,0 +1,38 @@
+package com.inetum.clientsbatch.simulation;
+
+import com.inetum.clientsbatch.dto.Data;
+import com.inetum.clientsbatch.writer.RejectedRowWriter;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ Etapa previa a ClientItemProcessor (tras la validación): calcula la cuota en local y descarta las
+ solicitudes claramente inasumibles, cuya cuota supera maxPaymentToIncome veces el ingreso, sin gastar
+ las llamadas de cliente y simulación. El umbral debe ser más laxo que el criterio de la API para no
+ descartar nada que ella aprobaría. Las filas descartadas van a la salida de rechazados.
+*/
+public class AffordabilityPreFilter implements ItemProcessor<Data, Data> {
+
+    public static final String STAGE = "PREFILTRO";
+
+    private final AmortizationEngine engine;
+    private final RejectedRowWriter rejectedRowWriter;
+
+    public AffordabilityPreFilter(AmortizationEngine engine, RejectedRowWriter rejectedRowWriter) {
+        this.engine = engine;
+        this.rejectedRowWriter = rejectedRowWriter;
+    }
+
+    @Override
+    public Data process(Data data) {
+        long start = System.nanoTime();
+        Double payment = engine.monthlyPayment(data);
+        if (payment == null || engine.isAffordable(data, payment)) {
+            return data;
+        }
+        rejectedRowWriter.reject(data, STAGE, "cuota " + payment + " inasumible con ingreso " + data.getMonthlyIncome(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return null;
+    }
+}
@@ -0,0 +1,84 @@
+package com.inetum.clientsbatch.simulation;
+
+import com.inetum.clientsbatch.dto.Data;
+
+import java.util.List;
+
+/*
+ Simulación local de préstamos con la fórmula de amortización francesa (cuota constante):
+   cuota = P * r / (1 - (1 + r)^-n), con r = interés anual / 100 / 12 y n = plazo en meses.
+ Es la misma cuenta que hace la API de simulación, salvo redondeos (aquí se redondea a céntimos), así que
+ sirve para estimar, no para sustituirla en una ejecución real.
+
+ simulate(List) trabaja por chunk y rellena las filas en su sitio, sin copias intermedias. Las filas sin
+ los datos necesarios (no validadas) se dejan como están.
+
+ La aprobación estimada compara la cuota con maxPaymentToIncome veces el ingreso mensual. Sin tipo de
+ cambio no se puede comparar si el préstamo y el ingreso van en monedas distintas: esas filas cuentan
+ como aprobadas y decide la API.
+*/
+public class AmortizationEngine {
+
+    private final double maxPaymentToIncome;
+
+    public AmortizationEngine(double maxPaymentToIncome) {
+        if (maxPaymentToIncome <= 0) {
+            throw new IllegalArgumentException("La relación cuota/ingreso debe ser mayor que 0");
+        }
+        this.maxPaymentToIncome = maxPaymentToIncome;
+    }
+
+    public static double monthlyPayment(double principal, double annualRatePercent, int term) {
+        double rate = annualRatePercent / 1200.0;
+        if (rate == 0) {
+            return principal / term;
+        }
+        return principal * rate / (1 - Math.pow(1 + rate, -term));
+    }
+
+    static double roundToCents(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+
+    static boolean isSimulable(Data data) {
+        return data.getLoanAmount() != null && data.getInterestRate() != null && data.getTerm() != null
+                && data.getTerm() > 0;
+    }
+
+    // Cuota redondeada o null si a la fila le faltan datos
+    public Double monthlyPayment(Data data) {
+        if (!isSimulable(data)) {
+            return null;
+        }
+        return roundToCents(monthlyPayment(data.getLoanAmount(), data.getInterestRate(), data.getTerm()));
+    }
+
+    public boolean isAffordable(Data data, double monthlyPayment) {
+        if (data.getMonthlyIncome() == null || data.getCurrency() == null
+                || !data.getCurrency().equals(data.getCurrencyOfIncome())) {
+            return true;
+        }
+        return monthlyPayment <= data.getMonthlyIncome() * maxPaymentToIncome;
+    }
+
+    // Rellena monthlyPayment, totalPayment y approved (y totalInterest de las aprobadas) y devuelve las aprobadas
+    public int simulate(List<? extends Data> items) {
+        int approved = 0;
+        for (Data data : items) {
+            Double monthly = monthlyPayment(data);
+            if (monthly == null) {
+                continue;
+            }
+            double total = roundToCents(monthly * data.getTerm());
+            boolean affordable = isAffordable(data, monthly);
+            data.setMonthlyPayment(monthly);
+            data.setTotalPayment(total);
+            data.setApproved(affordable);
+            if (affordable) {
+                data.setTotalInterest(total - data.getLoanAmount());
+                approved++;
+            }
+        }
+        return approved;
+    }
+}
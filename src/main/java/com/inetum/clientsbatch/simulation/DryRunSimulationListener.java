@@ -0,0 +1,70 @@
+package com.inetum.clientsbatch.simulation;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.Chunk;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ Modo en seco (batch.simulation.dry-run): el processor no llama a la API y cada chunk se simula entero con
+ AmortizationEngine justo antes del writer. Las filas llevan la cuota y la aprobación estimadas, pero no
+ loanId ni próxima cuota porque no se crea ningún préstamo: el reporte no lista préstamos y la estimación
+ queda solo en el log. Al final del step registra las aprobaciones estimadas y las llamadas a la API que
+ habría hecho la ejecución real (una de cliente y una de simulación por fila, una de préstamo por aprobada), que es la
+ carga que recibirían los servicios. Sirve también para medir el rendimiento del batch sin la red.
+*/
+public class DryRunSimulationListener implements ItemWriteListener<Data>, StepExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(DryRunSimulationListener.class);
+
+    private final AmortizationEngine engine;
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder approved = new LongAdder();
+    private final LongAdder simulationNanos = new LongAdder();
+
+    public DryRunSimulationListener(AmortizationEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        rows.reset();
+        approved.reset();
+        simulationNanos.reset();
+    }
+
+    @Override
+    public void beforeWrite(Chunk<? extends Data> items) {
+        long start = System.nanoTime();
+        approved.add(engine.simulate(items.getItems()));
+        simulationNanos.add(System.nanoTime() - start);
+        rows.add(items.size());
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        long total = rows.sum();
+        long approvedTotal = approved.sum();
+        logger.info("Simulación en seco de {}: {} filas, {} aprobadas (estimado) en {} ms de cálculo",
+                stepExecution.getStepName(), total, approvedTotal,
+                TimeUnit.NANOSECONDS.toMillis(simulationNanos.sum()));
+        logger.info("Llamadas a la API evitadas: {} de cliente, {} de simulación, {} de préstamo",
+                total, total, approvedTotal);
+        return null;
+    }
+
+    public long getRowCount() {
+        return rows.sum();
+    }
+
+    public long getApprovedCount() {
+        return approved.sum();
+    }
+}
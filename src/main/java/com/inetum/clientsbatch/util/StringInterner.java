@@ -0,0 +1,45 @@
+package com.inetum.clientsbatch.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ Deduplicación de cadenas con tamaño acotado: guarda como mucho maxSize valores y descarta el usado hace
+ más tiempo (LRU). Los valores frecuentes (nombres y apellidos repetidos) siguen compartiendo instancia y
+ un fichero de nombres casi todos distintos no retiene una copia extra de cada uno.
+ No es thread-safe: cada reader usa el suyo.
+*/
+public class StringInterner {
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    private final Map<String, String> values;
+
+    public StringInterner() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public StringInterner(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("El tamaño máximo debe ser al menos 1");
+        }
+        this.values = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String canonical = values.putIfAbsent(value, value);
+        return canonical == null ? value : canonical;
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
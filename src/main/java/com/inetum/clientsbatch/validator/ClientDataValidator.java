@@ -0,0 +1,64 @@
+package com.inetum.clientsbatch.validator;
+
+import com.inetum.clientsbatch.dto.Currency;
+import com.inetum.clientsbatch.dto.Data;
+
+import java.time.LocalDate;
+
+/*
+ Comprobaciones baratas en memoria sobre los campos de entrada: obligatorios, rangos numéricos,
+ códigos de moneda y fechas razonables. Devuelve el motivo del rechazo o null si la fila es válida
+ (sin crear objetos en el camino feliz).
+*/
+public class ClientDataValidator {
+
+    static final double MAX_INTEREST_RATE = 100.0;
+    static final int MAX_TERM = 600;
+    static final LocalDate MIN_DATE = LocalDate.of(2000, 1, 1);
+    static final LocalDate MAX_DATE = LocalDate.of(2100, 12, 31);
+
+    public String validate(Data data) {
+        if (isBlank(data.getFirstName())) {
+            return "firstName obligatorio";
+        }
+        if (isBlank(data.getPaternalLastName())) {
+            return "paternalLastName obligatorio";
+        }
+        if (Currency.fromCode(data.getCurrencyOfIncome()) == null) {
+            return "currencyOfIncome no soportada: " + data.getCurrencyOfIncome();
+        }
+        if (Currency.fromCode(data.getCurrency()) == null) {
+            return "currency no soportada: " + data.getCurrency();
+        }
+        if (!isPositive(data.getMonthlyIncome())) {
+            return "monthlyIncome debe ser mayor que 0";
+        }
+        if (!isPositive(data.getLoanAmount())) {
+            return "loanAmount debe ser mayor que 0";
+        }
+        Double rate = data.getInterestRate();
+        if (!isPositive(rate) || rate > MAX_INTEREST_RATE) {
+            return "interestRate fuera de rango (0, " + MAX_INTEREST_RATE + "]";
+        }
+        Integer term = data.getTerm();
+        if (term == null || term < 1 || term > MAX_TERM) {
+            return "term fuera de rango [1, " + MAX_TERM + "]";
+        }
+        LocalDate date = data.getDisbursementDate();
+        if (date == null) {
+            return "disbursementDate obligatoria";
+        }
+        if (date.isBefore(MIN_DATE) || date.isAfter(MAX_DATE)) {
+            return "disbursementDate fuera de rango: " + date;
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static boolean isPositive(Double value) {
+        return value != null && value > 0 && !value.isInfinite();
+    }
+}
@@ -0,0 +1,35 @@
+package com.inetum.clientsbatch.validator;
+
+import com.inetum.clientsbatch.dto.Data;
+import com.inetum.clientsbatch.writer.RejectedRowWriter;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ Etapa previa a ClientItemProcessor: filtra las filas que no pueden salir bien antes de gastar
+ ninguna llamada HTTP y las manda a la salida de rechazados.
+*/
+public class ClientValidationProcessor implements ItemProcessor<Data, Data> {
+
+    public static final String STAGE = "VALIDACION";
+
+    private final ClientDataValidator validator;
+    private final RejectedRowWriter rejectedRowWriter;
+
+    public ClientValidationProcessor(ClientDataValidator validator, RejectedRowWriter rejectedRowWriter) {
+        this.validator = validator;
+        this.rejectedRowWriter = rejectedRowWriter;
+    }
+
+    @Override
+    public Data process(Data data) {
+        long start = System.nanoTime();
+        String reason = validator.validate(data);
+        if (reason == null) {
+            return data;
+        }
+        rejectedRowWriter.reject(data, STAGE, reason, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return null;
+    }
+}
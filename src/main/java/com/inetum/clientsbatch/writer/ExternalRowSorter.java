@@ -0,0 +1,256 @@
+package com.inetum.clientsbatch.writer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Ordenación externa de filas ya formateadas. Las filas se acumulan en memoria mientras el consumo
+ total (compartido entre todos los sorters de un mismo writer) no supere el presupuesto; al pasarlo,
+ el sorter que lo ha desbordado ordena su buffer y lo vuelca a un run en disco. Al final se devuelven
+ cursores ordenados (el buffer en memoria y un cursor por run) para mezclarlos en k vías.
+
+ Si un sorter acumula MAX_FAN_IN runs, se mezclan en uno solo para no abrir demasiados ficheros a la vez.
+*/
+final class ExternalRowSorter implements Closeable {
+
+    // Fila con su clave de orden; a igual clave se desempata por el texto para que el orden sea estable
+    record Row(long key, String line) {
+    }
+
+    static final Comparator<Row> ORDER = Comparator.comparingLong(Row::key).thenComparing(Row::line);
+
+    static final int MAX_FAN_IN = 128;
+    private static final int IO_BUFFER = 64 * 1024;
+    private static final int ROW_OVERHEAD = 64;
+
+    private final String runPrefix;
+    private final long memoryBudget;
+    private final AtomicLong sharedMemory;
+    private final List<Row> buffer = new ArrayList<>();
+    private final List<Run> runs = new ArrayList<>();
+    private long bufferedBytes;
+    private int runSequence;
+
+    ExternalRowSorter(String runPrefix, long memoryBudget, AtomicLong sharedMemory) {
+        this.runPrefix = runPrefix;
+        this.memoryBudget = memoryBudget;
+        this.sharedMemory = sharedMemory;
+    }
+
+    private record Run(Path file, long rows) {
+    }
+
+    void add(long key, String line) {
+        buffer.add(new Row(key, line));
+        long bytes = ROW_OVERHEAD + 2L * line.length();
+        bufferedBytes += bytes;
+        if (sharedMemory.addAndGet(bytes) > memoryBudget) {
+            spill();
+        }
+    }
+
+    private void spill() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        buffer.sort(ORDER);
+        try {
+            runs.add(writeRun(buffer.iterator(), buffer.size()));
+            if (runs.size() >= MAX_FAN_IN) {
+                compactRuns();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo volcar un run de ordenación " + runPrefix, e);
+        }
+        buffer.clear();
+        sharedMemory.addAndGet(-bufferedBytes);
+        bufferedBytes = 0;
+    }
+
+    private Run writeRun(Iterator<Row> rows, long count) throws IOException {
+        Path file = Path.of(runPrefix + "." + runSequence++);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), IO_BUFFER))) {
+            while (rows.hasNext()) {
+                Row row = rows.next();
+                byte[] text = row.line().getBytes(StandardCharsets.UTF_8);
+                out.writeLong(row.key());
+                out.writeInt(text.length);
+                out.write(text);
+            }
+        }
+        return new Run(file, count);
+    }
+
+    // Mezcla todos los runs del sorter en uno solo
+    private void compactRuns() throws IOException {
+        List<RowCursor> cursors = new ArrayList<>(runs.size());
+        long total = 0;
+        for (Run run : runs) {
+            cursors.add(new FileCursor(run));
+            total += run.rows();
+        }
+        Run merged;
+        try (MergeIterator merge = new MergeIterator(cursors)) {
+            merged = writeRun(merge, total);
+        }
+        for (Run run : runs) {
+            Files.deleteIfExists(run.file());
+        }
+        runs.clear();
+        runs.add(merged);
+    }
+
+    int runCount() {
+        return runs.size();
+    }
+
+    // Cursores ordenados con todo lo añadido: el buffer en memoria y uno por run en disco
+    List<RowCursor> cursors() throws IOException {
+        List<RowCursor> cursors = new ArrayList<>(runs.size() + 1);
+        for (Run run : runs) {
+            if (run.rows() > 0) {
+                cursors.add(new FileCursor(run));
+            }
+        }
+        if (!buffer.isEmpty()) {
+            buffer.sort(ORDER);
+            cursors.add(new MemoryCursor(buffer));
+        }
+        return cursors;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Run run : runs) {
+            Files.deleteIfExists(run.file());
+        }
+        runs.clear();
+        buffer.clear();
+        sharedMemory.addAndGet(-bufferedBytes);
+        bufferedBytes = 0;
+    }
+
+    interface RowCursor extends Closeable {
+
+        // Fila actual, o null si el cursor está agotado
+        Row head();
+
+        void advance() throws IOException;
+    }
+
+    private static final class MemoryCursor implements RowCursor {
+        private final List<Row> rows;
+        private int position;
+
+        private MemoryCursor(List<Row> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public Row head() {
+            return position < rows.size() ? rows.get(position) : null;
+        }
+
+        @Override
+        public void advance() {
+            position++;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class FileCursor implements RowCursor {
+        private final DataInputStream in;
+        private long remaining;
+        private Row head;
+
+        private FileCursor(Run run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.file()), IO_BUFFER));
+            this.remaining = run.rows();
+            advance();
+        }
+
+        @Override
+        public Row head() {
+            return head;
+        }
+
+        @Override
+        public void advance() throws IOException {
+            if (remaining == 0) {
+                head = null;
+                return;
+            }
+            long key = in.readLong();
+            byte[] text = new byte[in.readInt()];
+            in.readFully(text);
+            head = new Row(key, new String(text, StandardCharsets.UTF_8));
+            remaining--;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // Mezcla en k vías de cursores ya ordenados
+    static final class MergeIterator implements Iterator<Row>, Closeable {
+        private final List<RowCursor> cursors;
+        private final PriorityQueue<RowCursor> heap;
+
+        MergeIterator(List<RowCursor> cursors) {
+            this.cursors = cursors;
+            this.heap = new PriorityQueue<>(Math.max(1, cursors.size()), Comparator.comparing(RowCursor::head, ORDER));
+            for (RowCursor cursor : cursors) {
+                if (cursor.head() != null) {
+                    heap.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public Row next() {
+            RowCursor cursor = heap.poll();
+            Row row = cursor.head();
+            try {
+                cursor.advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer un run de ordenación", e);
+            }
+            if (cursor.head() != null) {
+                heap.add(cursor);
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (RowCursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+    }
+}
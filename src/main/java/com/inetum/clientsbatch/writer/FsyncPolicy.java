@@ -0,0 +1,13 @@
+package com.inetum.clientsbatch.writer;
+
+/*
+ Cuándo se fuerza a disco (fsync) lo escrito por los writers del reporte:
+  - PER_CHUNK: el cuerpo tras cada chunk y el reporte final antes de publicarlo (máxima durabilidad).
+  - AT_END: solo el reporte final antes de publicarlo.
+  - NEVER: se deja al sistema operativo (máximo rendimiento; un corte de luz puede perder datos).
+*/
+public enum FsyncPolicy {
+    PER_CHUNK,
+    AT_END,
+    NEVER
+}
@@ -0,0 +1,161 @@
+package com.inetum.clientsbatch.writer;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.annotation.AfterStep;
+import org.springframework.batch.core.annotation.BeforeStep;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Persiste los IDs de cliente, simulación y préstamo de cada chunk en la tabla loan_result con upserts
+ por lotes (INSERT ... ON DUPLICATE KEY UPDATE, válido en MySQL y en H2 con MODE=MySQL).
+
+ Dos modos:
+  - multiRow: una sola sentencia INSERT con hasta batchSize tuplas VALUES (...),(...) por ida y vuelta,
+    lo mismo que hace rewriteBatchedStatements=true del driver de MySQL pero sin depender del driver.
+  - batch JDBC normal (addBatch/executeBatch) en grupos de batchSize.
+ Al terminar el step se registra el rendimiento en filas por segundo.
+*/
+public class JdbcLoanResultWriter implements ItemWriter<Data> {
+
+    static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS loan_result (
+                simulation_id BIGINT NOT NULL PRIMARY KEY,
+                client_id BIGINT NOT NULL,
+                loan_id BIGINT NULL,
+                approved BOOLEAN NOT NULL,
+                currency VARCHAR(3) NULL,
+                loan_amount DOUBLE NULL,
+                processed_at TIMESTAMP NOT NULL
+            )""";
+
+    private static final String INSERT = "INSERT INTO loan_result "
+            + "(simulation_id, client_id, loan_id, approved, currency, loan_amount, processed_at) VALUES ";
+    private static final String TUPLE = "(?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPSERT = " ON DUPLICATE KEY UPDATE client_id = VALUES(client_id), "
+            + "loan_id = VALUES(loan_id), approved = VALUES(approved), currency = VALUES(currency), "
+            + "loan_amount = VALUES(loan_amount), processed_at = VALUES(processed_at)";
+    private static final int COLUMNS = 7;
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcLoanResultWriter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final boolean multiRow;
+    private final boolean initializeSchema;
+    private final Map<Integer, String> multiRowSql = new HashMap<>();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong nanosWriting = new AtomicLong();
+
+    public JdbcLoanResultWriter(DataSource dataSource, int batchSize, boolean multiRow, boolean initializeSchema) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor que 0");
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.batchSize = batchSize;
+        this.multiRow = multiRow;
+        this.initializeSchema = initializeSchema;
+    }
+
+    @BeforeStep
+    public void beforeStep(StepExecution stepExecution) {
+        if (initializeSchema) {
+            jdbcTemplate.execute(CREATE_TABLE);
+        }
+        rowsWritten.set(0);
+        nanosWriting.set(0);
+    }
+
+    @Override
+    public void write(Chunk<? extends Data> chunk) {
+        long start = System.nanoTime();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> rows = new ArrayList<>(chunk.size());
+        for (Data data : chunk.getItems()) {
+            // Sin simulación no hay nada que persistir (la fila falló antes en el processor)
+            if (data.getSimulationId() != null && data.getClientId() != null) {
+                rows.add(new Object[]{
+                        data.getSimulationId(),
+                        data.getClientId(),
+                        data.getLoanId(),
+                        Boolean.TRUE.equals(data.getApproved()),
+                        data.getCurrency(),
+                        data.getLoanAmount(),
+                        now
+                });
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (multiRow) {
+            writeMultiRow(rows);
+        } else {
+            jdbcTemplate.batchUpdate(INSERT + TUPLE + UPSERT, rows, batchSize, (ps, row) -> {
+                for (int i = 0; i < COLUMNS; i++) {
+                    ps.setObject(i + 1, row[i]);
+                }
+            });
+        }
+        rowsWritten.addAndGet(rows.size());
+        nanosWriting.addAndGet(System.nanoTime() - start);
+    }
+
+    private void writeMultiRow(List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Object[]> group = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            Object[] args = new Object[group.size() * COLUMNS];
+            int i = 0;
+            for (Object[] row : group) {
+                System.arraycopy(row, 0, args, i, COLUMNS);
+                i += COLUMNS;
+            }
+            jdbcTemplate.update(multiRowSql(group.size()), args);
+        }
+    }
+
+    private String multiRowSql(int tuples) {
+        synchronized (multiRowSql) {
+            return multiRowSql.computeIfAbsent(tuples, n -> {
+                StringBuilder sql = new StringBuilder(INSERT.length() + n * (TUPLE.length() + 1) + UPSERT.length());
+                sql.append(INSERT);
+                for (int t = 0; t < n; t++) {
+                    if (t > 0) {
+                        sql.append(',');
+                    }
+                    sql.append(TUPLE);
+                }
+                return sql.append(UPSERT).toString();
+            });
+        }
+    }
+
+    @AfterStep
+    public void afterStep(StepExecution stepExecution) {
+        logger.info("✓ Resultados persistidos en loan_result: {} filas | {} filas/s ({})",
+                rowsWritten.get(), String.format("%.1f", getRowsPerSecond()),
+                multiRow ? "INSERT multi-fila" : "batch JDBC");
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    // Filas por segundo contando solo el tiempo pasado en la base de datos
+    public double getRowsPerSecond() {
+        long nanos = nanosWriting.get();
+        return nanos == 0 ? 0.0 : rowsWritten.get() * 1_000_000_000.0 / nanos;
+    }
+}
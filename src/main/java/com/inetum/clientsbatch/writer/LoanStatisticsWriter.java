@@ -0,0 +1,194 @@
+package com.inetum.clientsbatch.writer;
+
+import com.inetum.clientsbatch.dto.Currency;
+import com.inetum.clientsbatch.dto.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.annotation.AfterStep;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+ Estadísticas de cartera calculadas al vuelo: número de préstamos, monto total, interés total y cuota
+ media por moneda y tramo de plazo. Cada chunk suma sus préstamos aprobados en arrays primitivos de
+ tamaño fijo (monedas x tramos), así no hace falta una segunda pasada sobre report.txt y la memoria no
+ depende del número de filas. El fichero de estadísticas solo se escribe si el step termina COMPLETED y,
+ como el reporte, se publica con un temporal y un movimiento atómico: un fallo no deja cifras parciales
+ ni un fichero a medias encima de las últimas buenas.
+
+ Los acumuladores se guardan en el contexto en cada commit para continuar tras un reinicio.
+*/
+public class LoanStatisticsWriter implements ItemStreamWriter<Data> {
+
+    static final String COUNTS_KEY = "stats.counts";
+    static final String AMOUNTS_KEY = "stats.amounts";
+    static final String INTERESTS_KEY = "stats.interests";
+    static final String PAYMENTS_KEY = "stats.payments";
+
+    // Límite superior (incluido) de cada tramo de plazo en cuotas; el último tramo es para plazos sin dato
+    static final int[] TERM_LIMITS = {12, 24, 36, 60, Integer.MAX_VALUE};
+    static final String[] TERM_LABELS = {"1-12", "13-24", "25-36", "37-60", "61+", "N/D"};
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final String OTHER_CURRENCY = "OTRA";
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanStatisticsWriter.class);
+
+    private final Path file;
+    private final int cells = (CURRENCIES.length + 1) * TERM_LABELS.length;
+    private long[] counts = new long[cells];
+    private double[] amounts = new double[cells];
+    private double[] interests = new double[cells];
+    private double[] payments = new double[cells];
+
+    public LoanStatisticsWriter(String file) {
+        this.file = Path.of(file);
+    }
+
+    @Override
+    public synchronized void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (executionContext.containsKey(COUNTS_KEY)) {
+            counts = ((long[]) executionContext.get(COUNTS_KEY)).clone();
+            amounts = ((double[]) executionContext.get(AMOUNTS_KEY)).clone();
+            interests = ((double[]) executionContext.get(INTERESTS_KEY)).clone();
+            payments = ((double[]) executionContext.get(PAYMENTS_KEY)).clone();
+        } else {
+            counts = new long[cells];
+            amounts = new double[cells];
+            interests = new double[cells];
+            payments = new double[cells];
+        }
+    }
+
+    // Un solo bloqueo por chunk: con steps multihilo los chunks se suman uno tras otro
+    @Override
+    public synchronized void write(Chunk<? extends Data> chunk) {
+        for (Data data : chunk.getItems()) {
+            if (data.getLoanId() == null) {
+                continue;
+            }
+            int cell = cell(data.getCurrency(), data.getTerm());
+            counts[cell]++;
+            amounts[cell] += valueOf(data.getLoanAmount());
+            interests[cell] += valueOf(data.getTotalInterest());
+            payments[cell] += valueOf(data.getMonthlyPayment());
+        }
+    }
+
+    private static double valueOf(Double value) {
+        return value == null ? 0.0 : value;
+    }
+
+    static int cell(String currency, Integer term) {
+        Currency known = Currency.fromCode(currency);
+        int row = known == null ? CURRENCIES.length : known.ordinal();
+        return row * TERM_LABELS.length + termBucket(term);
+    }
+
+    static int termBucket(Integer term) {
+        if (term == null) {
+            return TERM_LABELS.length - 1;
+        }
+        int bucket = 0;
+        while (term > TERM_LIMITS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    @Override
+    public synchronized void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.put(COUNTS_KEY, counts.clone());
+        executionContext.put(AMOUNTS_KEY, amounts.clone());
+        executionContext.put(INTERESTS_KEY, interests.clone());
+        executionContext.put(PAYMENTS_KEY, payments.clone());
+    }
+
+    @AfterStep
+    public synchronized void afterStep(StepExecution stepExecution) {
+        BatchStatus status = stepExecution.getStatus();
+        if (status != null && status != BatchStatus.COMPLETED) {
+            logger.warn("Step terminado en {}: no se publican las estadísticas {}", status, file);
+            return;
+        }
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.writeString(tempFile, render(), StandardCharsets.UTF_8);
+            ReportAssembler.publish(tempFile, file);
+            logger.info("✓ Estadísticas de cartera generadas: {}", file);
+        } catch (IOException e) {
+            logger.info("✗ Error al generar las estadísticas de cartera");
+        }
+    }
+
+    synchronized String render() {
+        StringBuilder out = new StringBuilder(2048);
+        out.append(ReportAssembler.SEPARATOR_LINE);
+        out.append(String.format("Estadísticas de cartera por moneda y plazo%n"));
+        out.append(ReportAssembler.SEPARATOR_LINE);
+        out.append(String.format("%-10s %-10s %-12s %-18s %-18s %-15s%n",
+                "Moneda", "Plazo", "Préstamos", "Monto Total", "Interés Total", "Cuota Media"));
+        out.append(ReportAssembler.SEPARATOR_LINE);
+
+        long totalCount = 0;
+        for (int row = 0; row <= CURRENCIES.length; row++) {
+            String currency = row < CURRENCIES.length ? CURRENCIES[row].name() : OTHER_CURRENCY;
+            // Subtotal por moneda: importes de monedas distintas no se suman entre sí
+            long currencyCount = 0;
+            double currencyAmount = 0;
+            double currencyInterest = 0;
+            double currencyPayment = 0;
+            for (int bucket = 0; bucket < TERM_LABELS.length; bucket++) {
+                int cell = row * TERM_LABELS.length + bucket;
+                if (counts[cell] == 0) {
+                    continue;
+                }
+                appendLine(out, currency, TERM_LABELS[bucket], counts[cell], amounts[cell], interests[cell],
+                        payments[cell]);
+                currencyCount += counts[cell];
+                currencyAmount += amounts[cell];
+                currencyInterest += interests[cell];
+                currencyPayment += payments[cell];
+            }
+            if (currencyCount > 0) {
+                appendLine(out, currency, "Total", currencyCount, currencyAmount, currencyInterest, currencyPayment);
+                totalCount += currencyCount;
+            }
+        }
+        out.append(ReportAssembler.SEPARATOR_LINE);
+        out.append(String.format("Total de préstamos: %d%n", totalCount));
+        out.append(ReportAssembler.SEPARATOR_LINE);
+        return out.toString();
+    }
+
+    private static void appendLine(StringBuilder out, String currency, String term, long count, double amount,
+                                   double interest, double payment) {
+        out.append(String.format("%-10s %-10s %-12d %-18.2f %-18.2f %-15.2f%n",
+                currency, term, count, amount, interest, count == 0 ? 0.0 : payment / count));
+    }
+
+    public synchronized long getCount(String currency, Integer term) {
+        return counts[cell(currency, term)];
+    }
+
+    public synchronized double getTotalAmount(String currency, Integer term) {
+        return amounts[cell(currency, term)];
+    }
+
+    public synchronized double getAverageMonthlyPayment(String currency, Integer term) {
+        int cell = cell(currency, term);
+        return counts[cell] == 0 ? 0.0 : payments[cell] / counts[cell];
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+    }
+}
@@ -0,0 +1,190 @@
+package com.inetum.clientsbatch.writer;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.LocalOutputFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.annotation.AfterStep;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/*
+ Salida Parquet de los préstamos aprobados (y opcionalmente de las simulaciones no aprobadas) para
+ analítica, en lugar de parsear report.txt. Cada chunk se añade al row group en curso; el fichero se
+ escribe como <fichero>.inprogress y solo se publica con el nombre final (movimiento atómico, como el
+ reporte) en afterStep si el step terminó COMPLETED. Si falla o se detiene se borra el .inprogress y el
+ último Parquet bueno se conserva.
+
+ Parquet no admite añadir filas a un fichero cerrado, así que las filas ya escritas no se pueden
+ recuperar en un reinicio: con esta salida activa el job no es reiniciable (BatchConfig).
+
+ ParquetWriter no es seguro entre hilos: en el step multihilo los chunks se escriben de uno en uno.
+*/
+public class ParquetReportWriter implements ItemStreamWriter<Data> {
+
+    static final String ROWS_KEY = "parquet.rows";
+    static final String APPROVED = "APROBADO";
+    static final String NOT_APPROVED = "NO_APROBADO";
+
+    static final Schema SCHEMA = SchemaBuilder.record("LoanResult")
+            .namespace("com.inetum.clientsbatch")
+            .fields()
+            .optionalLong("clientId")
+            .optionalLong("simulationId")
+            .optionalLong("loanId")
+            .requiredString("status")
+            .optionalString("firstName")
+            .optionalString("paternalLastName")
+            .optionalString("maternalLastName")
+            .optionalString("currency")
+            .optionalDouble("loanAmount")
+            .optionalDouble("interestRate")
+            .optionalInt("term")
+            .name("disbursementDate").type(optionalDate()).withDefault(null)
+            .optionalDouble("monthlyPayment")
+            .optionalDouble("totalPayment")
+            .optionalDouble("totalInterest")
+            .name("nextPaymentDate").type(optionalDate()).withDefault(null)
+            .endRecord();
+
+    private static final Logger logger = LoggerFactory.getLogger(ParquetReportWriter.class);
+
+    private final Path file;
+    private final Path inProgressFile;
+    private final CompressionCodecName compression;
+    private final long rowGroupSize;
+    private final boolean includeRejected;
+    private ParquetWriter<GenericRecord> writer;
+    private long rows;
+
+    public ParquetReportWriter(String file, CompressionCodecName compression, long rowGroupSize,
+                               boolean includeRejected) {
+        this.file = Path.of(file);
+        this.inProgressFile = Path.of(file + ".inprogress");
+        this.compression = compression;
+        this.rowGroupSize = rowGroupSize;
+        this.includeRejected = includeRejected;
+    }
+
+    private static Schema optionalDate() {
+        Schema date = LogicalTypes.date().addToSchema(Schema.create(Schema.Type.INT));
+        return Schema.createUnion(Schema.create(Schema.Type.NULL), date);
+    }
+
+    @Override
+    public synchronized void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            writer = AvroParquetWriter.<GenericRecord>builder(new LocalOutputFile(inProgressFile))
+                    .withSchema(SCHEMA)
+                    .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                    .withCompressionCodec(compression)
+                    .withRowGroupSize(rowGroupSize)
+                    // currency y status tienen muy pocos valores distintos
+                    .withDictionaryEncoding(true)
+                    .build();
+            rows = 0;
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo abrir " + inProgressFile, e);
+        }
+    }
+
+    @Override
+    public synchronized void write(Chunk<? extends Data> chunk) throws Exception {
+        if (writer == null) {
+            open(new ExecutionContext());
+        }
+        for (Data data : chunk.getItems()) {
+            boolean approved = data.getLoanId() != null;
+            if (approved || includeRejected) {
+                writer.write(toRecord(data, approved));
+                rows++;
+            }
+        }
+    }
+
+    private static GenericRecord toRecord(Data data, boolean approved) {
+        GenericRecord record = new GenericData.Record(SCHEMA);
+        record.put("clientId", data.getClientId());
+        record.put("simulationId", data.getSimulationId());
+        record.put("loanId", data.getLoanId());
+        record.put("status", approved ? APPROVED : NOT_APPROVED);
+        record.put("firstName", data.getFirstName());
+        record.put("paternalLastName", data.getPaternalLastName());
+        record.put("maternalLastName", data.getMaternalLastName());
+        record.put("currency", data.getCurrency());
+        record.put("loanAmount", data.getLoanAmount());
+        record.put("interestRate", data.getInterestRate());
+        record.put("term", data.getTerm());
+        record.put("disbursementDate", epochDay(data.getDisbursementDate()));
+        record.put("monthlyPayment", data.getMonthlyPayment());
+        record.put("totalPayment", data.getTotalPayment());
+        record.put("totalInterest", data.getTotalInterest());
+        record.put("nextPaymentDate", epochDay(data.getNextPaymentDate()));
+        return record;
+    }
+
+    private static Integer epochDay(LocalDate date) {
+        return date == null ? null : (int) date.toEpochDay();
+    }
+
+    @Override
+    public synchronized void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(ROWS_KEY, rows);
+    }
+
+    // afterStep va antes que close(): aquí se cierra el writer (escribe el footer) y se decide si se publica
+    @AfterStep
+    public synchronized void afterStep(StepExecution stepExecution) {
+        try {
+            closeWriter();
+            BatchStatus status = stepExecution.getStatus();
+            if (status != null && status != BatchStatus.COMPLETED) {
+                logger.warn("Step terminado en {}: no se publica {}", status, file);
+                Files.deleteIfExists(inProgressFile);
+                return;
+            }
+            if (Files.exists(inProgressFile)) {
+                ReportAssembler.publish(inProgressFile, file);
+                logger.info("✓ Parquet generado: {} ({} filas)", file, rows);
+            }
+        } catch (IOException | ItemStreamException e) {
+            logger.error("✗ Error al generar {}", file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws ItemStreamException {
+        closeWriter();
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo cerrar " + inProgressFile, e);
+        } finally {
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.inetum.clientsbatch.writer;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ Informe de filas rechazadas y fallidas: una línea por fila con la etapa, el motivo, los campos de
+ entrada y la latencia de la etapa en la que se quedó (validación, alta de cliente, simulación o
+ préstamo, incluidas las simulaciones no aprobadas). Se escribe en streaming en la misma pasada que el
+ reporte, sin acumular filas, y puede recibir rechazos desde varios hilos.
+
+ Como el cuerpo de ReportWriter, en cada commit se guarda la posición del fichero; al reiniciar se trunca
+ a esa posición para descartar los rechazos del chunk que falló, que se vuelven a generar al repetirlo.
+*/
+public class RejectedRowWriter implements ItemStream {
+
+    static final String COUNT_KEY = "rejected.count";
+    static final String POSITION_KEY = "rejected.position";
+    private static final String HEADER = "etapa;motivo;firstName;paternalLastName;maternalLastName;"
+            + "currencyOfIncome;monthlyIncome;loanAmount;currency;interestRate;term;disbursementDate;latenciaMs";
+
+    private static final Logger logger = LoggerFactory.getLogger(RejectedRowWriter.class);
+
+    private final Path file;
+    private FileChannel channel;
+    private BufferedWriter out;
+    private long count;
+
+    public RejectedRowWriter(String fileName) {
+        this.file = Path.of(fileName);
+    }
+
+    @Override
+    public synchronized void open(ExecutionContext executionContext) throws ItemStreamException {
+        // En un reinicio se continúa el fichero existente desde el último commit en lugar de truncarlo entero
+        boolean restart = executionContext.containsKey(COUNT_KEY) && Files.exists(file);
+        count = restart ? executionContext.getLong(COUNT_KEY) : 0L;
+        try {
+            openFile(restart ? executionContext.getLong(POSITION_KEY, Files.size(file)) : -1);
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo abrir " + file, e);
+        }
+    }
+
+    // Con position < 0 el fichero se crea de nuevo con la cabecera; si no, se continúa desde position
+    private void openFile(long position) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(Math.max(position, 0));
+        channel.position(Math.max(position, 0));
+        out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+        if (position < 0) {
+            out.write(HEADER);
+            out.newLine();
+        }
+    }
+
+    public synchronized void reject(Data data, String stage, String reason, long latencyMillis) {
+        try {
+            if (out == null) {
+                openFile(-1);
+            }
+            out.write(stage);
+            out.write(';');
+            // Los mensajes de excepción pueden traer separadores o saltos de línea
+            out.write(String.valueOf(reason).replace(';', ',').replace('\n', ' ').replace('\r', ' '));
+            out.write(';');
+            out.write(String.valueOf(data.getFirstName()));
+            out.write(';');
+            out.write(String.valueOf(data.getPaternalLastName()));
+            out.write(';');
+            out.write(String.valueOf(data.getMaternalLastName()));
+            out.write(';');
+            out.write(String.valueOf(data.getCurrencyOfIncome()));
+            out.write(';');
+            out.write(String.valueOf(data.getMonthlyIncome()));
+            out.write(';');
+            out.write(String.valueOf(data.getLoanAmount()));
+            out.write(';');
+            out.write(String.valueOf(data.getCurrency()));
+            out.write(';');
+            out.write(String.valueOf(data.getInterestRate()));
+            out.write(';');
+            out.write(String.valueOf(data.getTerm()));
+            out.write(';');
+            out.write(String.valueOf(data.getDisbursementDate()));
+            out.write(';');
+            out.write(Long.toString(latencyMillis));
+            out.newLine();
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void update(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            if (out != null) {
+                out.flush();
+                executionContext.putLong(POSITION_KEY, channel.position());
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo volcar " + file, e);
+        }
+        executionContext.putLong(COUNT_KEY, count);
+    }
+
+    @Override
+    public synchronized void close() throws ItemStreamException {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+            if (count > 0) {
+                logger.info("Filas rechazadas: {} (ver {})", count, file);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo cerrar " + file, e);
+        } finally {
+            out = null;
+            channel = null;
+        }
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,85 @@
+package com.inetum.clientsbatch.writer;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/*
+ Compone report.txt a partir de uno o varios cuerpos ya formateados: cabecera con los totales,
+ los segmentos concatenados en orden con transferTo (copia secuencial sin volver a formatear filas)
+ y el separador final. Lo usan tanto el ReportWriter de un solo step como la mezcla de particiones.
+
+ El reporte se escribe en <reporte>.tmp y se publica con un move atómico: quien lea report.txt ve la
+ versión anterior o la nueva completa, nunca un fichero a medias aunque la JVM caiga durante la escritura.
+*/
+public final class ReportAssembler {
+
+    static final String SEPARATOR = "=".repeat(120);
+    static final String SEPARATOR_LINE = SEPARATOR + System.lineSeparator();
+
+    private ReportAssembler() {
+    }
+
+    public static void assemble(Path reportFile, long totalRead, long totalApproved, List<Path> segments)
+            throws IOException {
+        assemble(reportFile, totalRead, totalApproved, segments, FsyncPolicy.AT_END);
+    }
+
+    public static void assemble(Path reportFile, long totalRead, long totalApproved, List<Path> segments,
+                                FsyncPolicy fsyncPolicy) throws IOException {
+        Path tempFile = reportFile.resolveSibling(reportFile.getFileName() + ".tmp");
+        try (FileChannel report = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            report.write(StandardCharsets.UTF_8.encode(header(totalRead, totalApproved)));
+
+            for (Path segment : segments) {
+                try (FileChannel body = FileChannel.open(segment, StandardOpenOption.READ)) {
+                    long size = body.size();
+                    long transferred = 0;
+                    while (transferred < size) {
+                        transferred += body.transferTo(transferred, size - transferred, report);
+                    }
+                }
+            }
+
+            report.write(StandardCharsets.UTF_8.encode(SEPARATOR_LINE));
+            if (fsyncPolicy != FsyncPolicy.NEVER) {
+                report.force(true);
+            }
+        }
+        publish(tempFile, reportFile);
+    }
+
+    // Sustituye el destino por el temporal en una sola operación del sistema de ficheros
+    static void publish(Path tempFile, Path target) throws IOException {
+        try {
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static String header(long totalRead, long totalApproved) {
+        StringBuilder header = new StringBuilder(1024);
+        header.append(SEPARATOR_LINE).append(System.lineSeparator());
+
+        header.append(String.format("Total de registros procesados: %d%n", totalRead));
+        header.append(String.format("Total de préstamos generados: %d%n", totalApproved));
+        header.append(String.format("Simulaciones no aprobadas: %d%n%n", totalRead - totalApproved));
+
+        header.append(SEPARATOR_LINE);
+        header.append(String.format(
+                "%-10s %-15s %-20s %-20s %-10s %-10s %-15s %-15s %-15s %-15s %-10s %-12s%n",
+                "ID Cliente", "Nombre", "Apellido Pat.", "Apellido Mat.", "ID Préstamo", "Moneda",
+                "Monto Préstamo", "Total Interés", "Fecha Desemb.", "Próximo Pago", "Cuotas", "Monto Cuota"
+        ));
+        header.append(SEPARATOR_LINE);
+        return header.toString();
+    }
+}
@@ -0,0 +1,148 @@
+package com.inetum.clientsbatch.writer;
+
+import com.inetum.clientsbatch.dto.Data;
+
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/*
+ Codificador de ancho fijo para las filas del reporte. Escribe directamente en un StringBuilder
+ reutilizable el mismo texto que produciría
+   String.format("%-10d %-15s %-20s %-20s %-10d %-10s %-15.2f %-15.2f %-15s %-15s %-10d %-12.2f%n", ...)
+ sin parsear el formato, sin boxing y sin cadenas intermedias.
+
+ Los decimales se redondean HALF_UP sobre la representación decimal más corta del double, igual que
+ Formatter. Los casos raros (empates de redondeo, negativos, valores enormes, NaN, años fuera de
+ 1..9999, locales con otros dígitos) usan el camino lento equivalente para no cambiar ni un byte.
+*/
+public final class ReportLineFormatter {
+
+    private static final String NEWLINE = System.lineSeparator();
+    private static final double FAST_PATH_LIMIT = 1e9;
+    private static final double TIE_WINDOW = 1e-4;
+
+    private final char decimalSeparator;
+    private final boolean asciiDigits;
+    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    public ReportLineFormatter() {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.asciiDigits = symbols.getZeroDigit() == '0';
+    }
+
+    // Añade la fila del préstamo (con salto de línea) al final de out
+    public void appendRow(Data loan, StringBuilder out) {
+        if (!asciiDigits) {
+            out.append(String.format(
+                    "%-10d %-15s %-20s %-20s %-10d %-10s %-15.2f %-15.2f %-15s %-15s %-10d %-12.2f%n",
+                    loan.getClientId(), loan.getFirstName(), loan.getPaternalLastName(),
+                    loan.getMaternalLastName(), loan.getLoanId(), loan.getCurrency(), loan.getLoanAmount(),
+                    loan.getTotalInterest(), loan.getDisbursementDate().format(dateFormatter),
+                    loan.getNextPaymentDate().format(dateFormatter), loan.getTerm(), loan.getMonthlyPayment()));
+            return;
+        }
+        appendLong(out, loan.getClientId(), 10);
+        out.append(' ');
+        appendString(out, loan.getFirstName(), 15);
+        out.append(' ');
+        appendString(out, loan.getPaternalLastName(), 20);
+        out.append(' ');
+        appendString(out, loan.getMaternalLastName(), 20);
+        out.append(' ');
+        appendLong(out, loan.getLoanId(), 10);
+        out.append(' ');
+        appendString(out, loan.getCurrency(), 10);
+        out.append(' ');
+        appendDecimal(out, loan.getLoanAmount(), 15);
+        out.append(' ');
+        appendDecimal(out, loan.getTotalInterest(), 15);
+        out.append(' ');
+        appendDate(out, loan.getDisbursementDate(), 15);
+        out.append(' ');
+        appendDate(out, loan.getNextPaymentDate(), 15);
+        out.append(' ');
+        appendLong(out, loan.getTerm() == null ? null : loan.getTerm().longValue(), 10);
+        out.append(' ');
+        appendDecimal(out, loan.getMonthlyPayment(), 12);
+        out.append(NEWLINE);
+    }
+
+    private static void appendString(StringBuilder out, String value, int width) {
+        int start = out.length();
+        out.append(value);
+        pad(out, start, width);
+    }
+
+    private static void appendLong(StringBuilder out, Long value, int width) {
+        int start = out.length();
+        if (value == null) {
+            out.append("null");
+        } else {
+            out.append(value.longValue());
+        }
+        pad(out, start, width);
+    }
+
+    private void appendDecimal(StringBuilder out, Double value, int width) {
+        int start = out.length();
+        if (value == null) {
+            // Formatter aplica la precisión .2 al texto "null"
+            out.append("nu");
+        } else {
+            double v = value;
+            long cents = fastCents(v);
+            if (cents >= 0) {
+                out.append(cents / 100).append(decimalSeparator);
+                int fraction = (int) (cents % 100);
+                out.append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+            } else {
+                out.append(String.format("%.2f", v));
+            }
+        }
+        pad(out, start, width);
+    }
+
+    // Céntimos redondeados para el camino rápido, o -1 si hay que delegar en Formatter
+    static long fastCents(double v) {
+        if (!(v >= 0) || v >= FAST_PATH_LIMIT || Double.doubleToRawLongBits(v) == Long.MIN_VALUE) {
+            return -1;
+        }
+        double scaled = v * 100.0;
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (Math.abs(fraction - 0.5) < TIE_WINDOW) {
+            // Empate (o casi): lo resuelve Formatter sobre su representación decimal
+            return -1;
+        }
+        return fraction > 0.5 ? (long) floor + 1 : (long) floor;
+    }
+
+    private void appendDate(StringBuilder out, LocalDate date, int width) {
+        int start = out.length();
+        int year = date.getYear();
+        if (year < 1 || year > 9999) {
+            out.append(date.format(dateFormatter));
+        } else {
+            append2(out, date.getDayOfMonth());
+            out.append('/');
+            append2(out, date.getMonthValue());
+            out.append('/');
+            append2(out, year / 100);
+            append2(out, year % 100);
+        }
+        pad(out, start, width);
+    }
+
+    private static void append2(StringBuilder out, int value) {
+        out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private static void pad(StringBuilder out, int start, int width) {
+        for (int written = out.length() - start; written < width; written++) {
+            out.append(' ');
+        }
+    }
+}
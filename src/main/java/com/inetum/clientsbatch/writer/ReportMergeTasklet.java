@@ -0,0 +1,92 @@
+package com.inetum.clientsbatch.writer;
+
+import com.inetum.clientsbatch.reader.LineRangePartitioner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+ Step final del job particionado: suma los contadores de cada partición y compone report.txt con la
+ cabecera y los segmentos concatenados en orden de partición (ver ReportAssembler). No se vuelve a
+ formatear ninguna fila: el coste es una copia secuencial de los segmentos.
+
+ En un reinicio, las particiones que ya habían terminado no se vuelven a ejecutar y su contexto se
+ recupera de la ejecución anterior en el JobRepository.
+*/
+public class ReportMergeTasklet implements Tasklet {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportMergeTasklet.class);
+
+    private final JobRepository jobRepository;
+    private final String workerStepName;
+    private final Path reportFile;
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.AT_END;
+
+    public ReportMergeTasklet(JobRepository jobRepository, String workerStepName, String reportFile) {
+        this.jobRepository = jobRepository;
+        this.workerStepName = workerStepName;
+        this.reportFile = Path.of(reportFile);
+    }
+
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        JobExecution jobExecution = chunkContext.getStepContext().getStepExecution().getJobExecution();
+
+        List<ExecutionContext> partitions = new ArrayList<>();
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            if (stepExecution.getStepName().startsWith(workerStepName + ":")) {
+                partitions.add(segmentContext(jobExecution, stepExecution));
+            }
+        }
+        partitions.sort(Comparator.comparingInt(context -> context.getInt(LineRangePartitioner.INDEX_KEY, 0)));
+
+        long totalRead = 0;
+        long totalApproved = 0;
+        List<Path> segments = new ArrayList<>(partitions.size());
+        for (ExecutionContext context : partitions) {
+            if (!context.containsKey(ReportWriter.SEGMENT_FILE_KEY)) {
+                throw new IllegalStateException("Partición sin segmento de reporte: " + context);
+            }
+            segments.add(Path.of(context.getString(ReportWriter.SEGMENT_FILE_KEY)));
+            totalRead += context.getInt(ReportWriter.TOTAL_READ_KEY, 0);
+            totalApproved += context.getInt(ReportWriter.TOTAL_APPROVED_KEY, 0);
+        }
+
+        ReportAssembler.assemble(reportFile, totalRead, totalApproved, segments, fsyncPolicy);
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+        }
+
+        logger.info("\n✓ Reporte generado exitosamente: {} ({} segmentos)", reportFile, segments.size());
+        logger.info("Total de préstamos generados: {}", totalApproved);
+        return RepeatStatus.FINISHED;
+    }
+
+    private ExecutionContext segmentContext(JobExecution jobExecution, StepExecution stepExecution) {
+        ExecutionContext context = stepExecution.getExecutionContext();
+        if (context.containsKey(ReportWriter.SEGMENT_FILE_KEY)) {
+            return context;
+        }
+        // Partición completada en una ejecución anterior: no se ha vuelto a lanzar en esta
+        StepExecution previous = jobRepository.getLastStepExecution(jobExecution.getJobInstance(),
+                stepExecution.getStepName());
+        return previous == null ? context : previous.getExecutionContext();
+    }
+}
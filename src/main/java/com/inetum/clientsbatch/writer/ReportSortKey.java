@@ -0,0 +1,44 @@
+package com.inetum.clientsbatch.writer;
+
+import com.inetum.clientsbatch.dto.Data;
+
+/*
+ Clave de orden del reporte. Cada clave se reduce a un long que conserva el orden natural del campo,
+ para comparar filas sin tocar el texto ya formateado. Los nulos van al final.
+*/
+public enum ReportSortKey {
+
+    // Orden de llegada de los chunks (streaming, sin ordenar)
+    NONE {
+        @Override
+        public long of(Data data) {
+            return 0L;
+        }
+    },
+    CLIENT_ID {
+        @Override
+        public long of(Data data) {
+            return data.getClientId() == null ? Long.MAX_VALUE : data.getClientId();
+        }
+    },
+    LOAN_AMOUNT {
+        @Override
+        public long of(Data data) {
+            return data.getLoanAmount() == null ? Long.MAX_VALUE : sortableBits(data.getLoanAmount());
+        }
+    },
+    DISBURSEMENT_DATE {
+        @Override
+        public long of(Data data) {
+            return data.getDisbursementDate() == null ? Long.MAX_VALUE : data.getDisbursementDate().toEpochDay();
+        }
+    };
+
+    public abstract long of(Data data);
+
+    // Bits del double reordenados para que la comparación de long coincida con la de double
+    static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits < 0 ? bits ^ Long.MAX_VALUE : bits;
+    }
+}
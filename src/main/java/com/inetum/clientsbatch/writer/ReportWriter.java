@@ -1,83 +1,390 @@
 package com.inetum.clientsbatch.writer;
 
 import com.inetum.clientsbatch.dto.Data;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.annotation.AfterStep;
 import org.springframework.batch.item.Chunk;
-import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
 import java.nio.charset.StandardCharsets;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/*
+ Writer del reporte en streaming: cada chunk se formatea y se añade a un fichero de cuerpo
+ (report.txt.body) a través de un buffer grande, así la memoria no crece con el número de préstamos.
+ Al terminar el step se escribe la cabecera con los totales en report.txt y se le concatena el cuerpo
+ con transferTo, sin volver a formatear filas.
 
-public class ReportWriter implements ItemWriter<Data> {
+ Para reiniciar se guarda en el contexto la posición del cuerpo y los contadores: al reabrir se trunca
+ el cuerpo a la última posición confirmada y se sigue escribiendo desde ahí.
 
-    private int totalRead = 0;
-    private int totalApproved = 0;
-    private final List<Data> approvedLoans = new ArrayList<>();
-    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+ Modo concurrente (steps multihilo): cada hilo formatea sus filas en su propio segmento, sin bloqueos
+ compartidos, y al terminar el step los segmentos se ordenan por clientId y se mezclan en el cuerpo,
+ así el reporte sale igual sea cual sea el reparto de chunks entre hilos. Los contadores son LongAdder.
+ Un step multihilo no es reiniciable, por eso en este modo no se guarda posición en el contexto.
+
+ Reporte ordenado (sortKey distinto de NONE): las filas de cada segmento pasan por un ExternalRowSorter
+ que vuelca runs ordenados a disco cuando se supera el presupuesto de memoria, y al final se mezclan
+ en k vías, así el tamaño del reporte no depende del heap. Como en el modo concurrente, no es reiniciable.
+
+ El reporte final se publica de forma atómica (ver ReportAssembler) y la política de fsync decide si el
+ cuerpo se fuerza a disco tras cada chunk.
+
+ La cabecera y la concatenación final las hace ReportAssembler; en modo segmento (particiones) el writer
+ solo deja su cuerpo y los contadores para la mezcla posterior.
+*/
+public class ReportWriter implements ItemStreamWriter<Data> {
+
+    static final String BODY_POSITION_KEY = "report.body.position";
+    static final String TOTAL_READ_KEY = "report.total.read";
+    static final String TOTAL_APPROVED_KEY = "report.total.approved";
+    static final String SEGMENT_FILE_KEY = "report.segment.file";
+    static final long DEFAULT_SORT_MEMORY_BUDGET = 64L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final Path reportFile;
+    private final Path bodyFile;
+    private final boolean segment;
+    private final ReportSortKey sortKey;
+    private final long sortMemoryBudget;
+    private final AtomicLong sortMemory = new AtomicLong();
+    private final AtomicInteger segmentSequence = new AtomicInteger();
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.AT_END;
+    private final LongAdder totalRead = new LongAdder();
+    private final LongAdder totalApproved = new LongAdder();
+    private final Queue<Segment> segments = new ConcurrentLinkedQueue<>();
+    private volatile ThreadLocal<Segment> threadSegment = newThreadSegment();
+    private FileChannel body;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ReportLineFormatter lineFormatter = new ReportLineFormatter();
+    private final StringBuilder chunkText = new StringBuilder(8 * 1024);
     private static final Logger logger = LoggerFactory.getLogger(ReportWriter.class);
 
+    public ReportWriter() {
+        this("report.txt");
+    }
+
+    public ReportWriter(String reportFile) {
+        this(reportFile, false);
+    }
+
+    public ReportWriter(String reportFile, boolean concurrent) {
+        this(reportFile, concurrent, ReportSortKey.NONE, DEFAULT_SORT_MEMORY_BUDGET);
+    }
+
+    public ReportWriter(String reportFile, boolean concurrent, ReportSortKey sortKey, long sortMemoryBudget) {
+        this(Path.of(reportFile), Path.of(reportFile + ".body"), false,
+                // En modo concurrente sin clave explícita se ordena por clientId para que el resultado sea determinista
+                concurrent && sortKey == ReportSortKey.NONE ? ReportSortKey.CLIENT_ID : sortKey, sortMemoryBudget);
+    }
+
+    private ReportWriter(Path reportFile, Path bodyFile, boolean segment,
+                         ReportSortKey sortKey, long sortMemoryBudget) {
+        if (sortMemoryBudget < 1) {
+            throw new IllegalArgumentException("El presupuesto de memoria de la ordenación debe ser mayor que 0");
+        }
+        this.reportFile = reportFile;
+        this.bodyFile = bodyFile;
+        this.segment = segment;
+        this.sortKey = sortKey;
+        this.sortMemoryBudget = sortMemoryBudget;
+    }
+
+    /*
+     Writer de una partición: solo escribe las filas en su fichero de segmento. Al terminar el step deja
+     el segmento y sus contadores en el contexto del step para que ReportMergeTasklet componga el reporte.
+    */
+    public static ReportWriter segment(String segmentFile) {
+        return new ReportWriter(null, Path.of(segmentFile), true, ReportSortKey.NONE,
+                DEFAULT_SORT_MEMORY_BUDGET);
+    }
+
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    // Segmento propio de cada hilo: formateador, texto reutilizable y filas pendientes de mezclar
+    private static final class Segment {
+        private final ReportLineFormatter formatter = new ReportLineFormatter();
+        private final StringBuilder text = new StringBuilder(256);
+        private final ExternalRowSorter sorter;
+
+        private Segment(ExternalRowSorter sorter) {
+            this.sorter = sorter;
+        }
+    }
+
+    private ThreadLocal<Segment> newThreadSegment() {
+        return ThreadLocal.withInitial(() -> {
+            String runPrefix = bodyFile + ".run-" + segmentSequence.getAndIncrement();
+            Segment segment = new Segment(new ExternalRowSorter(runPrefix, sortMemoryBudget, sortMemory));
+            segments.add(segment);
+            return segment;
+        });
+    }
+
+    // Las filas se acumulan por segmento y se ordenan al final en lugar de ir directas al cuerpo
+    private boolean sorted() {
+        return sortKey != ReportSortKey.NONE;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        closeBody();
+        try {
+            if (executionContext.containsKey(BODY_POSITION_KEY) && Files.exists(bodyFile)) {
+                // Reinicio: se descarta lo escrito después del último commit
+                long position = executionContext.getLong(BODY_POSITION_KEY);
+                body = FileChannel.open(bodyFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                body.truncate(position);
+                body.position(position);
+                resetCounters(executionContext.getInt(TOTAL_READ_KEY, 0),
+                        executionContext.getInt(TOTAL_APPROVED_KEY, 0));
+            } else {
+                createBody();
+                resetCounters(0, 0);
+            }
+            buffer.clear();
+            discardSegments();
+            threadSegment = newThreadSegment();
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo abrir el cuerpo del reporte " + bodyFile, e);
+        }
+    }
+
+    private void createBody() throws IOException {
+        Path directory = bodyFile.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        body = FileChannel.open(bodyFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private void resetCounters(int read, int approved) {
+        totalRead.reset();
+        totalRead.add(read);
+        totalApproved.reset();
+        totalApproved.add(approved);
+    }
+
     @Override
     public void write(Chunk<? extends Data> chunk) throws Exception {
+        if (sorted()) {
+            writeToSegment(chunk);
+            return;
+        }
+        if (body == null) {
+            open(new ExecutionContext());
+        }
+        chunkText.setLength(0);
         for (Data data : chunk.getItems()) {
-            totalRead++;
+            totalRead.increment();
             // Solo considerar préstamos aprobados (que tienen loanId)
             if (data.getLoanId() != null) {
-                totalApproved++;
-                approvedLoans.add(data);
+                totalApproved.increment();
+                lineFormatter.appendRow(data, chunkText);
+            }
+        }
+        append(chunkText);
+        flushBuffer();
+        if (fsyncPolicy == FsyncPolicy.PER_CHUNK) {
+            body.force(false);
+        }
+    }
+
+    private void writeToSegment(Chunk<? extends Data> chunk) {
+        Segment segment = threadSegment.get();
+        for (Data data : chunk.getItems()) {
+            totalRead.increment();
+            if (data.getLoanId() != null) {
+                totalApproved.increment();
+                segment.text.setLength(0);
+                segment.formatter.appendRow(data, segment.text);
+                segment.sorter.add(sortKey.of(data), segment.text.toString());
+            }
+        }
+    }
+
+    // Mezcla en k vías los runs y buffers ordenados de todos los segmentos en el cuerpo
+    private void mergeSegments() throws IOException {
+        // Los hilos del step ya han terminado: cada segmento se ordena sin competir con nadie
+        List<ExternalRowSorter.RowCursor> cursors = new ArrayList<>();
+        int runs = 0;
+        for (Segment segment : segments) {
+            cursors.addAll(segment.sorter.cursors());
+            runs += segment.sorter.runCount();
+        }
+        chunkText.setLength(0);
+        try (ExternalRowSorter.MergeIterator merge = new ExternalRowSorter.MergeIterator(cursors)) {
+            while (merge.hasNext()) {
+                chunkText.append(merge.next().line());
+                if (chunkText.length() >= BUFFER_SIZE / 2) {
+                    append(chunkText);
+                    chunkText.setLength(0);
+                }
             }
         }
+        append(chunkText);
+        flushBuffer();
+        discardSegments();
+        if (runs > 0) {
+            logger.info("Reporte ordenado por {}: {} runs volcados a disco", sortKey, runs);
+        }
+    }
+
+    private void discardSegments() throws IOException {
+        for (Segment segment : segments) {
+            segment.sorter.close();
+        }
+        segments.clear();
+    }
+
+    private void append(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                flushBuffer();
+            } else {
+                break;
+            }
+        }
+        encoder.reset();
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            body.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (body == null || sorted()) {
+            return;
+        }
+        try {
+            flushBuffer();
+            executionContext.putLong(BODY_POSITION_KEY, body.position());
+            executionContext.putInt(TOTAL_READ_KEY, totalRead.intValue());
+            executionContext.putInt(TOTAL_APPROVED_KEY, totalApproved.intValue());
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo volcar el cuerpo del reporte", e);
+        }
     }
 
     @AfterStep
     public void afterStep(StepExecution stepExecution) {
-        try (FileWriter writer = new FileWriter("report.txt", StandardCharsets.UTF_8)) {
-            writer.write(String.format("%s%n%n", "=".repeat(120)));
-
-            writer.write(String.format("Total de registros procesados: %d%n", totalRead));
-            writer.write(String.format("Total de préstamos generados: %d%n", totalApproved));
-            writer.write(String.format("Simulaciones no aprobadas: %d%n%n", totalRead - totalApproved));
-
-            writer.write(String.format("%s%n", "=".repeat(120)));
-            writer.write(String.format(
-                    "%-10s %-15s %-20s %-20s %-10s %-10s %-15s %-15s %-15s %-15s %-10s %-12s%n",
-                    "ID Cliente", "Nombre", "Apellido Pat.", "Apellido Mat.", "ID Préstamo", "Moneda",
-                    "Monto Préstamo", "Total Interés", "Fecha Desemb.", "Próximo Pago", "Cuotas", "Monto Cuota"
-            ));
-            writer.write(String.format("%s%n", "=".repeat(120)));
-
-            for (Data loan : approvedLoans) {
-                writer.write(String.format(
-                        "%-10d %-15s %-20s %-20s %-10d %-10s %-15.2f %-15.2f %-15s %-15s %-10d %-12.2f%n",
-                        loan.getClientId(),
-                        loan.getFirstName(),
-                        loan.getPaternalLastName(),
-                        loan.getMaternalLastName(),
-                        loan.getLoanId(),
-                        loan.getCurrency(),
-                        loan.getLoanAmount(),
-                        loan.getTotalInterest(),
-                        loan.getDisbursementDate().format(dateFormatter),
-                        loan.getNextPaymentDate().format(dateFormatter),
-                        loan.getTerm(),
-                        loan.getMonthlyPayment()
-                ));
+        if (segment) {
+            closeSegment(stepExecution);
+            return;
+        }
+        BatchStatus status = stepExecution.getStatus();
+        if (status != null && status != BatchStatus.COMPLETED) {
+            keepForRestart(status);
+            return;
+        }
+        try {
+            if (sorted()) {
+                // Sin open previo solo se crea el cuerpo: los segmentos ya escritos se conservan
+                if (body == null) {
+                    createBody();
+                    buffer.clear();
+                }
+                mergeSegments();
+            } else if (body == null) {
+                open(new ExecutionContext());
             }
+            flushBuffer();
+            ReportAssembler.assemble(reportFile, totalRead.sum(), totalApproved.sum(), List.of(bodyFile),
+                    fsyncPolicy);
 
-            writer.write(String.format("%s%n", "=".repeat(120)));
+            logger.info("\n✓ Reporte generado exitosamente: {}", reportFile);
+            logger.info("Total de préstamos generados: {}", totalApproved.sum());
 
-            logger.info("\n✓ Reporte generado exitosamente: report.txt");
-            logger.info("Total de préstamos generados: {}", totalApproved);
+            closeBody();
+            Files.deleteIfExists(bodyFile);
+        } catch (IOException | ItemStreamException e) {
+            logger.info("✗ Error al generar el reporte");
+        }
+    }
 
+    /*
+     Step fallido o detenido: no se publica un reporte parcial encima del último bueno. El cuerpo queda
+     volcado hasta donde se escribió (el reinicio lo trunca a la última posición confirmada). Las filas del
+     modo ordenado no se pueden recuperar (el job no es reiniciable), así que sus runs se borran.
+    */
+    private void keepForRestart(BatchStatus status) {
+        try {
+            if (sorted()) {
+                discardSegments();
+            } else if (body != null) {
+                flushBuffer();
+            }
+            logger.warn("Step terminado en {}: no se publica {}, se conserva {}", status, reportFile, bodyFile);
         } catch (IOException e) {
-            logger.info("✗ Error al generar el reporte");
+            logger.warn("No se pudo volcar el cuerpo del reporte {}", bodyFile, e);
+        }
+    }
+
+    private void closeSegment(StepExecution stepExecution) {
+        try {
+            if (body == null) {
+                open(new ExecutionContext());
+            }
+            flushBuffer();
+            if (fsyncPolicy != FsyncPolicy.NEVER) {
+                body.force(false);
+            }
+            ExecutionContext context = stepExecution.getExecutionContext();
+            context.putString(SEGMENT_FILE_KEY, bodyFile.toString());
+            context.putInt(TOTAL_READ_KEY, totalRead.intValue());
+            context.putInt(TOTAL_APPROVED_KEY, totalApproved.intValue());
+            closeBody();
+        } catch (IOException | ItemStreamException e) {
+            logger.info("✗ Error al cerrar el segmento del reporte {}", bodyFile);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        closeBody();
+    }
+
+    private void closeBody() {
+        if (body == null) {
+            return;
+        }
+        try {
+            body.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("No se pudo cerrar el cuerpo del reporte", e);
+        } finally {
+            body = null;
         }
     }
 }
@@ -0,0 +1,72 @@
+package com.inetum.clientsbatch.benchmark;
+
+import com.inetum.clientsbatch.dto.Data;
+import com.inetum.clientsbatch.writer.ReportLineFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Compara el formateo de una fila del reporte con String.format frente a ReportLineFormatter.
+ No es un test de surefire: se lanza main() desde el IDE o con java usando el classpath de test
+ (mvn dependency:build-classpath -Dmdep.includeScope=test).
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportLineFormatterBenchmark {
+
+    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private final ReportLineFormatter formatter = new ReportLineFormatter();
+    private final StringBuilder out = new StringBuilder(256);
+    private Data loan;
+
+    @Setup
+    public void setUp() {
+        loan = Data.builder()
+                .clientId(12L).firstName("Isabel").paternalLastName("Vázquez").maternalLastName("Jiménez")
+                .loanId(68L).currency("MXN").loanAmount(230000.0).totalInterest(44682.0)
+                .disbursementDate(LocalDate.of(2025, 12, 24)).nextPaymentDate(LocalDate.of(2026, 1, 23))
+                .term(40).monthlyPayment(6867.05)
+                .build();
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format(
+                "%-10d %-15s %-20s %-20s %-10d %-10s %-15.2f %-15.2f %-15s %-15s %-10d %-12.2f%n",
+                loan.getClientId(), loan.getFirstName(), loan.getPaternalLastName(), loan.getMaternalLastName(),
+                loan.getLoanId(), loan.getCurrency(), loan.getLoanAmount(), loan.getTotalInterest(),
+                loan.getDisbursementDate().format(dateFormatter), loan.getNextPaymentDate().format(dateFormatter),
+                loan.getTerm(), loan.getMonthlyPayment());
+    }
+
+    @Benchmark
+    public int fixedWidthFormatter() {
+        out.setLength(0);
+        formatter.appendRow(loan, out);
+        return out.length();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ReportLineFormatterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,176 @@
+package com.inetum.clientsbatch.chunk;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.support.RepeatTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveChunkCompletionPolicyTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AdaptiveChunkCompletionPolicy policy;
+
+    @BeforeAll
+    static void addRegistry() {
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterAll
+    static void removeRegistry() {
+        Metrics.removeRegistry(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (policy != null) {
+            policy.close();
+        }
+    }
+
+    private AdaptiveChunkCompletionPolicy policy(int initial, int min, int max) {
+        policy = new AdaptiveChunkCompletionPolicy("testStep", initial, min, max, 0.1, 1000, 0.05);
+        return policy;
+    }
+
+    @Test
+    void testChunkEndsAtCurrentSize() {
+        policy(7, 1, 100);
+        RepeatTemplate template = new RepeatTemplate();
+        template.setCompletionPolicy(policy);
+        AtomicInteger items = new AtomicInteger();
+
+        template.iterate(context -> {
+            items.incrementAndGet();
+            return RepeatStatus.CONTINUABLE;
+        });
+
+        assertEquals(7, items.get());
+    }
+
+    @Test
+    void testGrowsWhenCommitOverheadDominates() {
+        policy(5, 5, 500);
+
+        // 5 filas en 100 ms de las que solo 10 ms son processor: el 90 % es coste fijo del chunk
+        policy.adapt(5, 100 * MS, 10 * MS, 0);
+        assertEquals(10, policy.getChunkSize());
+        policy.adapt(10, 110 * MS, 20 * MS, 0);
+        assertEquals(20, policy.getChunkSize());
+    }
+
+    @Test
+    void testGrowthIsLimitedByMaxDuration() {
+        policy(100, 5, 10_000);
+
+        // 8 ms por fila: con un máximo de 1 s caben 125 filas, no 200
+        policy.adapt(100, 800 * MS, 600 * MS, 0);
+        assertEquals(125, policy.getChunkSize());
+    }
+
+    @Test
+    void testStableWhenProcessingDominates() {
+        policy(50, 5, 500);
+
+        policy.adapt(50, 500 * MS, 480 * MS, 0);
+
+        assertEquals(50, policy.getChunkSize());
+    }
+
+    @Test
+    void testShrinksOnErrors() {
+        policy(40, 5, 500);
+
+        policy.adapt(40, 100 * MS, 10 * MS, 4);
+
+        assertEquals(20, policy.getChunkSize());
+    }
+
+    @Test
+    void testShrinksWhenChunkIsTooSlow() {
+        policy(100, 5, 500);
+
+        policy.adapt(100, 1250 * MS, 1200 * MS, 0);
+
+        assertEquals(80, policy.getChunkSize());
+    }
+
+    @Test
+    void testStaysWithinBounds() {
+        policy(300, 10, 400);
+        policy.adapt(300, 100 * MS, 1 * MS, 0);
+        assertEquals(400, policy.getChunkSize());
+
+        for (int i = 0; i < 10; i++) {
+            policy.adapt(10, 100 * MS, 10 * MS, 10);
+        }
+        assertEquals(10, policy.getChunkSize());
+    }
+
+    @Test
+    void testChunkSizeIsPublishedAsGauge() {
+        policy(5, 5, 500);
+        policy.open(new ExecutionContext());
+        policy.adapt(5, 100 * MS, 10 * MS, 0);
+
+        Gauge gauge = registry.find("clients.batch.chunk.size").tag("step", "testStep").gauge();
+        assertNotNull(gauge);
+        assertEquals(10.0, gauge.value());
+    }
+
+    @Test
+    void testFailuresReportedByTheProcessorShrinkTheChunk() {
+        policy(40, 5, 500);
+
+        policy.beforeChunk(null);
+        for (int i = 0; i < 10; i++) {
+            policy.beforeProcess("fila");
+            if (i < 2) {
+                // Como ClientItemProcessor: el fallo se captura y la fila sale como null
+                AdaptiveChunkCompletionPolicy.itemFailed();
+                policy.afterProcess("fila", null);
+            } else {
+                policy.afterProcess("fila", "fila");
+            }
+        }
+        policy.afterChunk(null);
+
+        assertEquals(20, policy.getChunkSize(), "2 fallos de 10 superan el 5 % de errores");
+        AdaptiveChunkCompletionPolicy.itemFailed();// fuera de un chunk no hace nada
+    }
+
+    @Test
+    void testGaugeFollowsTheOpenPolicyAndIsRemovedOnClose() {
+        AdaptiveChunkCompletionPolicy first = policy(5, 5, 500);
+        first.open(new ExecutionContext());
+        first.close();
+        assertNull(registry.find("clients.batch.chunk.size").tag("step", "testStep").gauge());
+
+        AdaptiveChunkCompletionPolicy second = policy(40, 5, 500);
+        second.open(new ExecutionContext());
+        second.open(new ExecutionContext());
+        second.close();
+
+        Gauge gauge = registry.find("clients.batch.chunk.size").tag("step", "testStep").gauge();
+        assertNotNull(gauge, "Sigue abierto en otra partición");
+        assertEquals(40.0, gauge.value(), "El gauge debe leer la política del job en curso, no la primera");
+    }
+
+    @Test
+    void testInvalidBounds() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveChunkCompletionPolicy("x", 5, 10, 5, 0.1, 1000, 0.05));
+    }
+}
@@ -0,0 +1,60 @@
+package com.inetum.clientsbatch.chunk;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.Chunk;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommitLatencyListenerTest {
+
+    private final StepExecution stepExecution = new StepExecution("step1", new JobExecution(1L));
+
+    @Test
+    void testMeasuresFromEndOfWriteToAfterChunk() throws Exception {
+        CommitLatencyListener listener = new CommitLatencyListener();
+        listener.beforeStep(stepExecution);
+
+        listener.beforeChunk(null);
+        listener.afterWrite(new Chunk<>(List.of("a")));
+        Thread.sleep(20);
+        listener.afterChunk(null);
+
+        assertEquals(1, listener.getCommitCount());
+        assertTrue(listener.getAverageCommitMillis() >= 20, "Debe incluir el tiempo hasta afterChunk");
+        assertNull(listener.afterStep(stepExecution));
+    }
+
+    @Test
+    void testChunksWithoutWriteOrWithErrorAreIgnored() {
+        CommitLatencyListener listener = new CommitLatencyListener();
+        listener.beforeStep(stepExecution);
+
+        listener.beforeChunk(null);
+        listener.afterChunk(null);
+
+        listener.beforeChunk(null);
+        listener.afterWrite(new Chunk<>(List.of("a")));
+        listener.afterChunkError(null);
+        listener.afterChunk(null);
+
+        assertEquals(0, listener.getCommitCount());
+        assertEquals(0, listener.getAverageCommitMillis());
+    }
+
+    @Test
+    void testBeforeStepResetsCounters() {
+        CommitLatencyListener listener = new CommitLatencyListener();
+        listener.record(TimeUnit.MILLISECONDS.toNanos(4));
+        listener.record(TimeUnit.MILLISECONDS.toNanos(2));
+        assertEquals(2, listener.getCommitCount());
+        assertEquals(3.0, listener.getAverageCommitMillis(), 0.001);
+
+        listener.beforeStep(stepExecution);
+        assertEquals(0, listener.getCommitCount());
+    }
+}
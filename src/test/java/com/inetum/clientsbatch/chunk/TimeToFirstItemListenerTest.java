@@ -0,0 +1,39 @@
+package com.inetum.clientsbatch.chunk;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeToFirstItemListenerTest {
+
+    private final StepExecution stepExecution = new StepExecution("step1", new JobExecution(1L));
+
+    @Test
+    void testOnlyFirstReadOfEachStepIsMeasured() throws Exception {
+        TimeToFirstItemListener listener = new TimeToFirstItemListener();
+        assertEquals(-1, listener.getTimeToFirstItemMillis(), "Sin lecturas no hay medida");
+
+        listener.beforeStep(stepExecution);
+        listener.afterRead("a");
+        long first = listener.getTimeToFirstItemMillis();
+        assertTrue(first >= 0);
+
+        Thread.sleep(20);
+        listener.afterRead("b");
+        assertEquals(first, listener.getTimeToFirstItemMillis(), "Las lecturas siguientes no cuentan");
+
+        listener.afterStep(stepExecution);
+        listener.beforeStep(stepExecution);
+        listener.afterRead("c");
+        assertTrue(listener.getTimeToFirstItemMillis() >= first + 20, "Cada step vuelve a medir su primera fila");
+    }
+
+    @Test
+    void testReadsOutsideAStepAreIgnored() {
+        TimeToFirstItemListener listener = new TimeToFirstItemListener();
+        listener.afterRead("a");
+        assertEquals(-1, listener.getTimeToFirstItemMillis());
+    }
+}
@@ -0,0 +1,92 @@
+package com.inetum.clientsbatch.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataTest {
+
+    private static Data fullRow() {
+        return Data.builder()
+                .clientId(1L)
+                .firstName("Juan")
+                .paternalLastName("García")
+                .maternalLastName("López")
+                .currencyOfIncome("USD")
+                .monthlyIncome(3000.0)
+                .simulationId(100L)
+                .loanAmount(15000.0)
+                .currency("USD")
+                .interestRate(8.5)
+                .term(24)
+                .disbursementDate(LocalDate.of(2025, 12, 20))
+                .monthlyPayment(681.84)
+                .totalPayment(16364.16)
+                .approved(true)
+                .loanId(200L)
+                .totalInterest(1364.16)
+                .nextPaymentDate(LocalDate.of(2026, 1, 20))
+                .build();
+    }
+
+    @Test
+    void testFieldsKeepTheirValues() {
+        Data data = fullRow();
+
+        assertEquals(1L, data.getClientId());
+        assertEquals(3000.0, data.getMonthlyIncome());
+        assertEquals(24, data.getTerm());
+        assertEquals(LocalDate.of(2025, 12, 20), data.getDisbursementDate());
+        assertTrue(data.getApproved());
+        assertEquals(1364.16, data.getTotalInterest());
+        assertEquals(LocalDate.of(2026, 1, 20), data.getNextPaymentDate());
+    }
+
+    @Test
+    void testNullsArePreserved() {
+        Data data = Data.builder().firstName("María").approved(false).loanAmount(0.0).build();
+
+        assertNull(data.getClientId());
+        assertNull(data.getMonthlyIncome());
+        assertNull(data.getTerm());
+        assertNull(data.getDisbursementDate());
+        assertFalse(data.getApproved());
+        assertEquals(0.0, data.getLoanAmount(), "Un 0 asignado no debe confundirse con null");
+
+        data.setLoanAmount(null);
+        data.setApproved(null);
+        assertNull(data.getLoanAmount());
+        assertNull(data.getApproved());
+        assertEquals(Data.builder().firstName("María").build(), data);
+    }
+
+    @Test
+    void testCurrenciesShareTheEnumString() {
+        Data first = new Data();
+        Data second = new Data();
+        first.setCurrency(new String("EUR"));
+        second.setCurrencyOfIncome(new String("EUR"));
+
+        assertSame(Currency.EUR.name(), first.getCurrency());
+        assertSame(first.getCurrency(), second.getCurrencyOfIncome());
+
+        first.setCurrency("XYZ");
+        assertEquals("XYZ", first.getCurrency(), "Las monedas desconocidas se conservan para la validación");
+    }
+
+    @Test
+    void testJsonRoundTrip() throws Exception {
+        ObjectMapper mapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+        Data original = fullRow();
+
+        String json = mapper.writeValueAsString(original);
+
+        assertTrue(json.contains("\"disbursementDate\":\"20/12/2025\""), json);
+        assertEquals(original, mapper.readValue(json, Data.class));
+    }
+}
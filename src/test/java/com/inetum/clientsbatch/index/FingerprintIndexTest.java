@@ -0,0 +1,122 @@
+package com.inetum.clientsbatch.index;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FingerprintIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPutAndGet() throws Exception {
+        try (FingerprintIndex index = FingerprintIndex.open(tempDir.resolve("test.idx"), 16)) {
+            index.put(42L, 1L, 100L, 200L);
+
+            assertTrue(index.contains(42L));
+            assertEquals(200L, index.getLoanId(42L));
+            assertEquals(-1L, index.getLoanId(43L));
+            assertEquals(1, index.size());
+        }
+    }
+
+    @Test
+    void testPutOverwritesExistingEntry() throws Exception {
+        try (FingerprintIndex index = FingerprintIndex.open(tempDir.resolve("test.idx"), 16)) {
+            index.put(42L, 1L, 100L, 200L);
+            index.put(42L, 1L, 101L, 201L);
+
+            assertEquals(201L, index.getLoanId(42L));
+            assertEquals(1, index.size());
+        }
+    }
+
+    @Test
+    void testZeroFingerprintIsSupported() throws Exception {
+        try (FingerprintIndex index = FingerprintIndex.open(tempDir.resolve("test.idx"), 16)) {
+            index.put(0L, 1L, 2L, 3L);
+            assertEquals(3L, index.getLoanId(0L));
+        }
+    }
+
+    @Test
+    void testGrowsAndKeepsEntries() throws Exception {
+        try (FingerprintIndex index = FingerprintIndex.open(tempDir.resolve("test.idx"), 16)) {
+            for (long i = 1; i <= 1000; i++) {
+                index.put(i * 7919L, i, i, i + 10_000L);
+            }
+
+            assertEquals(1000, index.size());
+            for (long i = 1; i <= 1000; i++) {
+                assertEquals(i + 10_000L, index.getLoanId(i * 7919L));
+            }
+        }
+    }
+
+    @Test
+    void testGrowReplacesFileAtomicallyAndSurvivesReopen() throws Exception {
+        Path file = tempDir.resolve("test.idx");
+        try (FingerprintIndex index = FingerprintIndex.open(file, 16)) {
+            for (long i = 1; i <= 500; i++) {
+                index.put(i * 31L, i, i, i + 1);
+            }
+        }
+
+        assertFalse(Files.exists(tempDir.resolve("test.idx.grow")), "El fichero temporal se renombra sobre el índice");
+        try (FingerprintIndex reopened = FingerprintIndex.open(file, 16)) {
+            assertEquals(500, reopened.size());
+            for (long i = 1; i <= 500; i++) {
+                assertEquals(i + 1, reopened.getLoanId(i * 31L));
+            }
+        }
+    }
+
+    @Test
+    void testEntriesSurviveReopen() throws Exception {
+        Path file = tempDir.resolve("test.idx");
+        try (FingerprintIndex index = FingerprintIndex.open(file, 16)) {
+            for (long i = 1; i <= 100; i++) {
+                index.put(i, i, i, i * 2);
+            }
+        }
+
+        try (FingerprintIndex reopened = FingerprintIndex.open(file, 16)) {
+            assertEquals(100, reopened.size());
+            assertEquals(84L, reopened.getLoanId(42L));
+        }
+    }
+
+    @Test
+    void testRejectsForeignFile() throws Exception {
+        Path file = tempDir.resolve("other.idx");
+        Files.write(file, new byte[64]);
+
+        assertThrows(IOException.class, () -> FingerprintIndex.open(file, 16));
+    }
+
+    @Test
+    void testFingerprintUsesOnlyInputFields() {
+        Data input = Data.builder()
+                .firstName("Juan").paternalLastName("García").maternalLastName("López")
+                .currencyOfIncome("USD").monthlyIncome(3000.0)
+                .loanAmount(15000.0).currency("USD").interestRate(8.5).term(24)
+                .disbursementDate(LocalDate.of(2025, 12, 20))
+                .build();
+        long before = RowFingerprint.of(input);
+
+        input.setClientId(1L);
+        input.setLoanId(200L);
+        assertEquals(before, RowFingerprint.of(input), "Los campos de la API no cambian la huella");
+
+        input.setLoanAmount(15001.0);
+        assertNotEquals(before, RowFingerprint.of(input), "Un cambio de entrada cambia la huella");
+    }
+}
@@ -0,0 +1,60 @@
+package com.inetum.clientsbatch.index;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnchangedRowFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Data inputRow(String firstName) {
+        return Data.builder()
+                .firstName(firstName).paternalLastName("García")
+                .currencyOfIncome("USD").monthlyIncome(3000.0)
+                .loanAmount(15000.0).currency("USD").interestRate(8.5).term(24)
+                .disbursementDate(LocalDate.of(2025, 12, 20))
+                .build();
+    }
+
+    @Test
+    void testSkipsRowsWithLoanFromPreviousRun() {
+        String indexFile = tempDir.resolve("fingerprints.idx").toString();
+
+        // Primera ejecución: Juan obtiene préstamo, Ana no
+        UnchangedRowFilter firstRun = new UnchangedRowFilter(indexFile, 16);
+        firstRun.open(new ExecutionContext());
+        Data juan = firstRun.process(inputRow("Juan"));
+        Data ana = firstRun.process(inputRow("Ana"));
+        assertNotNull(juan);
+        assertNotNull(ana);
+        juan.setClientId(1L);
+        juan.setSimulationId(100L);
+        juan.setLoanId(200L);
+        firstRun.afterWrite(new Chunk<>(List.of(juan, ana)));
+        firstRun.close();
+        assertEquals(1, firstRun.getRecorded());
+
+        // Segunda ejecución con el mismo fichero
+        UnchangedRowFilter secondRun = new UnchangedRowFilter(indexFile, 16);
+        secondRun.open(new ExecutionContext());
+        assertNull(secondRun.process(inputRow("Juan")), "Juan ya tiene préstamo y no cambió");
+        assertNotNull(secondRun.process(inputRow("Ana")), "Ana no obtuvo préstamo y se reintenta");
+
+        Data changed = inputRow("Juan");
+        changed.setLoanAmount(20000.0);
+        assertNotNull(secondRun.process(changed), "Una fila modificada se vuelve a procesar");
+
+        assertEquals(1, secondRun.getSkipped());
+        secondRun.close();
+    }
+}
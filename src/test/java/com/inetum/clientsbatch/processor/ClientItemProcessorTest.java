@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.inetum.clientsbatch.dto.Data;
+import com.inetum.clientsbatch.writer.RejectedRowWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -394,6 +395,84 @@ class ClientItemProcessorTest {
 
     // Helper methods to create mock responses
 
+    @Test
+    void testFailuresAndNotApprovedAreRecordedWithStage() throws Exception {
+        // Arrange
+        RejectedRowWriter failureWriter = mock(RejectedRowWriter.class);
+        processor.setFailureWriter(failureWriter);
+        when(restTemplate.postForEntity(eq(CLIENT_API_URL), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(new ResponseEntity<>(createClientResponse(5L, 201), HttpStatus.CREATED));
+        when(restTemplate.postForEntity(contains(SIMULATION_API_URL), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(new ResponseEntity<>(createSimulationResponse(105L, false), HttpStatus.OK))
+                .thenReturn(new ResponseEntity<>(createSimulationResponse(106L, true), HttpStatus.OK));
+        when(restTemplate.postForEntity(contains(LOAN_API_URL), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new RuntimeException("timeout"));
+
+        // Act
+        Data notApproved = processor.process(testData);
+        Data loanFailed = processor.process(Data.builder().firstName("Ana").loanAmount(1000.0).currency("USD")
+                .interestRate(5.0).term(12).disbursementDate(LocalDate.of(2025, 12, 20)).build());
+
+        // Assert
+        assertNotNull(notApproved);
+        assertNull(loanFailed);
+        verify(failureWriter).reject(same(testData), eq(ClientItemProcessor.STAGE_SIMULATION),
+                eq(ClientItemProcessor.NOT_APPROVED), longThat(latency -> latency >= 0));
+        verify(failureWriter).reject(any(Data.class), eq(ClientItemProcessor.STAGE_LOAN),
+                eq("RuntimeException: timeout"), anyLong());
+        verifyNoMoreInteractions(failureWriter);
+    }
+
+    @Test
+    void testClientFailureIsRecorded() throws Exception {
+        // Arrange
+        RejectedRowWriter failureWriter = mock(RejectedRowWriter.class);
+        processor.setFailureWriter(failureWriter);
+        when(restTemplate.postForEntity(eq(CLIENT_API_URL), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+
+        // Act
+        Data result = processor.process(testData);
+
+        // Assert
+        assertNull(result);
+        verify(failureWriter).reject(same(testData), eq(ClientItemProcessor.STAGE_CLIENT), eq("HTTP 503"), anyLong());
+    }
+
+    @Test
+    void testFailureWarningsBypassTheLogSampler() throws Exception {
+        // Arrange
+        ItemLogSampler sampler = new ItemLogSampler(0);
+        processor.setItemLogSampler(sampler);
+        when(restTemplate.postForEntity(eq(CLIENT_API_URL), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE))
+                .thenThrow(new RuntimeException("timeout"));
+
+        // Act
+        processor.process(testData);
+        processor.process(testData);
+
+        // Assert
+        assertEquals(0, sampler.getSuppressedCount(), "Los fallos no deben pasar por el muestreo");
+    }
+
+    @Test
+    void testOtherSuccessStatusSkipsClientTrace() throws Exception {
+        // Arrange
+        ItemLogSampler sampler = new ItemLogSampler(0);
+        processor.setItemLogSampler(sampler);
+        when(restTemplate.postForEntity(eq(CLIENT_API_URL), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(new ResponseEntity<>(createClientResponse(1L, 202), HttpStatus.ACCEPTED));
+        when(restTemplate.postForEntity(contains(SIMULATION_API_URL), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+
+        // Act
+        processor.process(testData);
+
+        // Assert: ni "creado" ni "existe" para un 202
+        assertEquals(0, sampler.getSuppressedCount());
+    }
+
     private String createClientResponse(Long clientId, int statusCode) {
         ObjectMapper mapper = new ObjectMapper();
         ArrayNode arrayNode = mapper.createArrayNode();
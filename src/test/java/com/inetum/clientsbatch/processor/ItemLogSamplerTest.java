@@ -0,0 +1,36 @@
+package com.inetum.clientsbatch.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemLogSamplerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testLimitsLogsPerSecondAndCountsTheRest() {
+        ItemLogSampler sampler = new ItemLogSampler(2);
+
+        assertTrue(sampler.shouldLog(10 * SECOND));
+        assertTrue(sampler.shouldLog(10 * SECOND + 1));
+        assertFalse(sampler.shouldLog(10 * SECOND + 2));
+        assertFalse(sampler.shouldLog(10 * SECOND + 3));
+        assertTrue(sampler.shouldLog(11 * SECOND), "En un segundo nuevo se vuelve a registrar");
+
+        assertEquals(2, sampler.getSuppressedCount());
+    }
+
+    @Test
+    void testNegativeLogsEverythingAndZeroNothing() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(ItemLogSampler.ALL.shouldLog(SECOND));
+        }
+        ItemLogSampler none = new ItemLogSampler(0);
+        assertFalse(none.shouldLog(SECOND));
+        assertFalse(none.shouldLog(2 * SECOND));
+        assertEquals(2, none.getSuppressedCount());
+    }
+}
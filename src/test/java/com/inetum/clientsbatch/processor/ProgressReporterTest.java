@@ -0,0 +1,59 @@
+package com.inetum.clientsbatch.processor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressReporterTest {
+
+    private final ProgressReporter reporter = new ProgressReporter(60_000);
+
+    @AfterEach
+    void tearDown() {
+        reporter.stop();
+    }
+
+    @Test
+    void testProgressLineAggregatesCountersAndIntervalRate() {
+        reporter.start();
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            reporter.itemStarted();
+        }
+        reporter.loanCreated();
+        reporter.notApproved();
+        reporter.failed(ClientItemProcessor.STAGE_CLIENT);
+        reporter.failed(ClientItemProcessor.STAGE_CLIENT);
+        reporter.failed(ClientItemProcessor.STAGE_LOAN);
+
+        reporter.progressLine(start);
+        for (int i = 0; i < 5; i++) {
+            reporter.itemStarted();
+        }
+        String line = reporter.progressLine(start + 2_000_000_000L);
+
+        assertTrue(line.startsWith("Progreso: 15 filas (2"), "5 filas en 2 s: " + line);
+        assertTrue(line.contains("1 préstamos, 1 no aprobadas"));
+        assertEquals(Map.of("CLIENTE", 2L, "PRESTAMO", 1L), reporter.failureCounts());
+    }
+
+    @Test
+    void testCountersResetOnlyWhenTheFirstJobStarts() {
+        JobExecution first = new JobExecution(1L);
+        JobExecution second = new JobExecution(2L);
+
+        reporter.beforeJob(first);
+        reporter.itemStarted();
+        reporter.beforeJob(second);
+        reporter.itemStarted();
+        reporter.afterJob(first);
+
+        assertTrue(reporter.progressLine(System.nanoTime()).startsWith("Progreso: 2 filas"),
+                "El segundo job no reinicia los contadores del primero");
+        reporter.afterJob(second);
+    }
+}
@@ -0,0 +1,92 @@
+package com.inetum.clientsbatch.processor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inetum.clientsbatch.reader.ClientFileReader;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarmUpListenerTest {
+
+    private HttpServer server;
+    private String endpoint;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger healthCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        // No está listo hasta la tercera consulta
+        server.createContext("/health", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            exchange.sendResponseHeaders(healthCalls.incrementAndGet() < 3 ? 503 : 200, -1);
+            exchange.close();
+        });
+        server.start();
+        endpoint = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testOpensDistinctConnectionsEvenOnErrorResponses() throws Exception {
+        WarmUpListener listener = new WarmUpListener(new RestTemplate(), new ObjectMapper(), List.of(endpoint), new ClientFileReader(),
+                3, 10, "", 0);
+
+        assertEquals(3, listener.openConnections(endpoint), "Un 404 también abre la conexión");
+        assertEquals(3, clientPorts.size(), "Cada petición debe ir por su propia conexión");
+    }
+
+    @Test
+    void testWaitsForHealthBeforeOpeningConnections() {
+        WarmUpListener listener = new WarmUpListener(new RestTemplate(), new ObjectMapper(), List.of(endpoint), new ClientFileReader(),
+                2, 10, "/health", 5000);
+
+        listener.beforeJob(new JobExecution(1L));
+
+        assertTrue(healthCalls.get() >= 3, "Debe reintentar hasta que health responda 2xx");
+    }
+
+    @Test
+    void testSyntheticRowsGoThroughReaderJsonAndFormatter() throws Exception {
+        WarmUpListener listener = new WarmUpListener(new RestTemplate(), new ObjectMapper(), List.of(), new ClientFileReader(),
+                0, 250, "", 0);
+
+        assertEquals(250, listener.warmCodePaths());
+    }
+
+    @Test
+    void testUnreachableEndpointDoesNotFailTheJob() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        WarmUpListener listener = new WarmUpListener(new RestTemplate(), new ObjectMapper(), List.of("http://localhost:" + port),
+                new ClientFileReader(), 2, 10, "", 0);
+
+        assertEquals(0, listener.openConnections("http://localhost:" + port));
+        assertDoesNotThrow(() -> listener.beforeJob(new JobExecution(1L)));
+    }
+}
@@ -137,6 +137,20 @@ class ClientFileReaderTest {
         itemReader.close();
     }
 
+    @Test
+    void testCurrenciesShareCanonicalInstance() throws Exception {
+        itemReader.open(new ExecutionContext());
+
+        Data juan = itemReader.read(); // USD
+        itemReader.read(); // María - EUR
+        Data carlos = itemReader.read(); // USD
+
+        assertSame(juan.getCurrency(), carlos.getCurrency(), "Las monedas repetidas deben compartir instancia");
+        assertSame(juan.getCurrencyOfIncome(), carlos.getCurrency());
+
+        itemReader.close();
+    }
+
     @Test
     void testSkipsHeaderLine() throws Exception {
         itemReader.open(new ExecutionContext());
@@ -0,0 +1,77 @@
+package com.inetum.clientsbatch.reader;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineRangePartitionerTest {
+
+    @Test
+    void testRangesAreContiguousAndCoverAllRows() {
+        ByteArrayResource csv = new ByteArrayResource(
+                "cabecera\na\nb\nc\nd\ne\nf\ng\n\n".getBytes(StandardCharsets.UTF_8));
+
+        Map<String, ExecutionContext> partitions = new LineRangePartitioner(csv, 1).partition(3);
+
+        assertEquals(3, partitions.size());
+        int expectedFirst = 0;
+        int index = 0;
+        for (ExecutionContext context : partitions.values()) {
+            assertEquals(index++, context.getInt(LineRangePartitioner.INDEX_KEY));
+            assertEquals(expectedFirst, context.getInt(LineRangePartitioner.FIRST_ITEM_KEY));
+            expectedFirst = context.getInt(LineRangePartitioner.MAX_ITEM_KEY);
+        }
+        assertEquals(7, expectedFirst);
+        assertEquals(3, partitions.get("partition0").getInt(LineRangePartitioner.MAX_ITEM_KEY));
+    }
+
+    @Test
+    void testNoMorePartitionsThanRows() {
+        ByteArrayResource csv = new ByteArrayResource("cabecera\r\na\r\nb".getBytes(StandardCharsets.UTF_8));
+
+        Map<String, ExecutionContext> partitions = new LineRangePartitioner(csv, 1).partition(8);
+
+        assertEquals(2, partitions.size());
+    }
+
+    @Test
+    void testPartitionReadersReadEveryRowOnce() throws Exception {
+        ClientFileReader clientFileReader = new ClientFileReader();
+        Map<String, ExecutionContext> partitions =
+                new LineRangePartitioner(new ClassPathResource("clients.csv"), 1).partition(4);
+
+        List<String> names = new ArrayList<>();
+        for (ExecutionContext context : partitions.values()) {
+            FlatFileItemReader<Data> reader = clientFileReader.clientItemReader();
+            reader.setCurrentItemCount(context.getInt(LineRangePartitioner.FIRST_ITEM_KEY));
+            reader.setMaxItemCount(context.getInt(LineRangePartitioner.MAX_ITEM_KEY));
+            reader.open(new ExecutionContext());
+            Data data;
+            while ((data = reader.read()) != null) {
+                names.add(data.getFirstName() + " " + data.getPaternalLastName());
+            }
+            reader.close();
+        }
+
+        FlatFileItemReader<Data> whole = clientFileReader.clientItemReader();
+        whole.open(new ExecutionContext());
+        List<String> expected = new ArrayList<>();
+        Data data;
+        while ((data = whole.read()) != null) {
+            expected.add(data.getFirstName() + " " + data.getPaternalLastName());
+        }
+        whole.close();
+
+        assertEquals(expected, names);
+    }
+}
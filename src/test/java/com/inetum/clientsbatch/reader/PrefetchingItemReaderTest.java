@@ -0,0 +1,144 @@
+package com.inetum.clientsbatch.reader;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.support.ListItemReader;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefetchingItemReaderTest {
+
+    private static final String KEY = "test." + PrefetchingItemReader.READ_COUNT_KEY;
+
+    @Test
+    void testReadsAllRecordsFromCsvInOrder() throws Exception {
+        PrefetchingItemReader<Data> reader =
+                new PrefetchingItemReader<>(new ClientFileReader().clientItemReader(), 4, "test");
+        reader.open(new ExecutionContext());
+
+        Data first = reader.read();
+        assertEquals("Juan", first.getFirstName());
+        assertEquals("María", reader.read().getFirstName());
+
+        int count = 2;
+        while (reader.read() != null) {
+            count++;
+        }
+        assertEquals(20, count, "Debe leer exactamente 20 registros del CSV");
+        assertNull(reader.read(), "Tras el final debe seguir devolviendo null");
+
+        reader.close();
+    }
+
+    @Test
+    void testSavedStateIsConsumerPosition() throws Exception {
+        PrefetchingItemReader<Data> reader =
+                new PrefetchingItemReader<>(new ClientFileReader().clientItemReader(), 10, "test");
+        ExecutionContext context = new ExecutionContext();
+        reader.open(context);
+
+        reader.read();
+        reader.read();
+        reader.read();
+        // Dar tiempo al productor para llenar la cola por delante del consumidor
+        Thread.sleep(100);
+        reader.update(context);
+        reader.close();
+
+        assertEquals(3L, context.getLong(KEY),
+                "Debe guardarse lo consumido, no lo leído por el productor");
+    }
+
+    @Test
+    void testNoStateIsSavedWhenDisabled() throws Exception {
+        PrefetchingItemReader<Data> reader =
+                new PrefetchingItemReader<>(new ClientFileReader().clientItemReader(), 10, "test");
+        reader.setSaveState(false);
+        ExecutionContext context = new ExecutionContext();
+        reader.open(context);
+
+        reader.read();
+        reader.update(context);
+        reader.close();
+
+        assertFalse(context.containsKey(KEY));
+    }
+
+    @Test
+    void testRestartContinuesFromConsumerPosition() throws Exception {
+        ExecutionContext context = new ExecutionContext();
+        context.putLong(KEY, 3L);
+
+        PrefetchingItemReader<Data> reader =
+                new PrefetchingItemReader<>(new ClientFileReader().clientItemReader(), 2, "test");
+        reader.open(context);
+
+        Data fourth = reader.read();
+        assertEquals("Ana", fourth.getFirstName(), "Tras reiniciar debe continuar en el cuarto registro");
+
+        reader.update(context);
+        assertEquals(4L, context.getLong(KEY));
+        reader.close();
+    }
+
+    @Test
+    void testReadersInSameContextKeepSeparateState() throws Exception {
+        ExecutionContext context = new ExecutionContext();
+        PrefetchingItemReader<String> csv =
+                new PrefetchingItemReader<>(new ListItemReader<>(List.of("a", "b", "c")), 2, "csv");
+        PrefetchingItemReader<String> parquet =
+                new PrefetchingItemReader<>(new ListItemReader<>(List.of("x", "y", "z")), 2, "parquet");
+        csv.open(context);
+        parquet.open(context);
+
+        csv.read();
+        csv.read();
+        parquet.read();
+        csv.update(context);
+        parquet.update(context);
+        csv.close();
+        parquet.close();
+
+        assertEquals(2L, context.getLong("csv." + PrefetchingItemReader.READ_COUNT_KEY));
+        assertEquals(1L, context.getLong("parquet." + PrefetchingItemReader.READ_COUNT_KEY));
+    }
+
+    @Test
+    void testWorksWithNonStreamReader() throws Exception {
+        PrefetchingItemReader<String> reader =
+                new PrefetchingItemReader<>(new ListItemReader<>(List.of("a", "b", "c")), 1, "test");
+        reader.open(new ExecutionContext());
+
+        assertEquals("a", reader.read());
+        assertEquals("b", reader.read());
+        assertEquals("c", reader.read());
+        assertNull(reader.read());
+        assertTrue(reader.getAverageFillLevel() >= 0.0);
+
+        reader.close();
+    }
+
+    @Test
+    void testPropagatesDelegateErrors() throws Exception {
+        ItemReader<String> failing = () -> {
+            throw new IllegalStateException("fallo de lectura");
+        };
+        PrefetchingItemReader<String> reader = new PrefetchingItemReader<>(failing, 5, "test");
+        reader.open(new ExecutionContext());
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, reader::read);
+        assertEquals("fallo de lectura", e.getMessage());
+
+        reader.close();
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        ItemReader<String> reader = new ListItemReader<>(List.of());
+        assertThrows(IllegalArgumentException.class, () -> new PrefetchingItemReader<>(reader, 0, "test"));
+    }
+}
@@ -0,0 +1,172 @@
+package com.inetum.clientsbatch.reader;
+
+import com.inetum.clientsbatch.chunk.PooledChunkRepeatOperations;
+import com.inetum.clientsbatch.dto.Data;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SynchronizedItemReaderTest {
+
+    private static SynchronizedItemReader<Integer> numbers(int count) {
+        return new SynchronizedItemReader<>(
+                new ListItemReader<>(IntStream.range(0, count).boxed().toList()), "test");
+    }
+
+    @Test
+    void testConcurrentReadsDeliverEveryCsvRowOnce() throws Exception {
+        SynchronizedItemReader<Data> reader =
+                new SynchronizedItemReader<>(new ClientFileReader().clientItemReader(), "test");
+        reader.open(new ExecutionContext());
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<List<Data>>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                List<Data> read = new ArrayList<>();
+                Data data;
+                while ((data = reader.read()) != null) {
+                    read.add(data);
+                }
+                return read;
+            }));
+        }
+        Set<String> names = new HashSet<>();
+        int total = 0;
+        for (Future<List<Data>> future : futures) {
+            for (Data data : future.get()) {
+                names.add(data.getFirstName() + " " + data.getPaternalLastName() + " " + data.getMaternalLastName());
+                total++;
+            }
+        }
+        pool.shutdown();
+        reader.close();
+
+        assertEquals(20, total, "Debe entregar exactamente las 20 filas del CSV");
+        assertEquals(20, names.size(), "Ninguna fila debe entregarse dos veces");
+    }
+
+    @Test
+    void testNoStateIsSaved() throws Exception {
+        SynchronizedItemReader<Integer> reader = numbers(5);
+        ExecutionContext context = new ExecutionContext();
+        reader.open(context);
+
+        reader.read();
+        reader.update(context);
+        reader.close();
+
+        assertTrue(context.isEmpty(), "Sin reinicio posible no se guarda ninguna posición");
+        assertEquals(1, reader.getReadCount());
+    }
+
+    @Test
+    void testMultiThreadedStepProcessesEveryRowOnce() throws Exception {
+        JobRepository jobRepository = jobRepository("multithread");
+        ThreadPoolTaskExecutor taskExecutor = taskExecutor(4);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+
+        JobExecution execution = launcher(jobRepository).run(job(jobRepository, taskExecutor, chunk -> {
+            threads.add(Thread.currentThread().getName());
+            written.addAll(chunk.getItems());
+            // Un poco de trabajo por chunk para que ningún hilo agote el reader antes de que arranquen los demás
+            Thread.sleep(5);
+        }), new JobParametersBuilder().addLong("run", 1L).toJobParameters());
+
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+        assertEquals(100, written.size(), "Ninguna fila debe procesarse dos veces");
+        assertEquals(IntStream.range(0, 100).boxed().toList(), written.stream().sorted().toList());
+        assertTrue(threads.size() > 1, "Los chunks deben repartirse entre los hilos del pool");
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("step1-")));
+        taskExecutor.shutdown();
+    }
+
+    @Test
+    void testFailedChunkFailsTheStep() throws Exception {
+        JobRepository jobRepository = jobRepository("multithreadfail");
+        ThreadPoolTaskExecutor taskExecutor = taskExecutor(4);
+
+        JobExecution execution = launcher(jobRepository).run(job(jobRepository, taskExecutor, chunk -> {
+            if (chunk.getItems().contains(57)) {
+                throw new IllegalStateException("fallo simulado");
+            }
+        }), new JobParametersBuilder().addLong("run", 1L).toJobParameters());
+
+        assertEquals(BatchStatus.FAILED, execution.getStatus());
+        assertTrue(execution.getAllFailureExceptions().stream()
+                .anyMatch(e -> "fallo simulado".equals(e.getMessage())));
+        taskExecutor.shutdown();
+    }
+
+    private static JobRepository jobRepository(String database) throws Exception {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("org/springframework/batch/core/schema-h2.sql"))
+                .execute(dataSource);
+        JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setTransactionManager(new DataSourceTransactionManager(dataSource));
+        factory.afterPropertiesSet();
+        return factory.getObject();
+    }
+
+    private static TaskExecutorJobLauncher launcher(JobRepository jobRepository) throws Exception {
+        TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+        launcher.setJobRepository(jobRepository);
+        launcher.afterPropertiesSet();
+        return launcher;
+    }
+
+    private static ThreadPoolTaskExecutor taskExecutor(int threads) {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(threads);
+        taskExecutor.setMaxPoolSize(threads);
+        taskExecutor.setThreadNamePrefix("step1-");
+        taskExecutor.initialize();
+        return taskExecutor;
+    }
+
+    // Como el step multihilo de BatchConfig: reader serializado y un bucle de chunks por hilo del pool
+    private static Job job(JobRepository jobRepository, ThreadPoolTaskExecutor taskExecutor,
+                           ItemWriter<Integer> writer) {
+        return new JobBuilder("multiThreadedJob", jobRepository)
+                .preventRestart()
+                .start(new StepBuilder("step1", jobRepository)
+                        .<Integer, Integer>chunk(5, new ResourcelessTransactionManager())
+                        .reader(numbers(100))
+                        .writer(writer)
+                        .stepOperations(new PooledChunkRepeatOperations(taskExecutor, taskExecutor.getMaxPoolSize()))
+                        .build())
+                .build();
+    }
+}
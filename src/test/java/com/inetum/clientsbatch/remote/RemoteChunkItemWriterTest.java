@@ -0,0 +1,132 @@
+package com.inetum.clientsbatch.remote;
+
+import com.inetum.clientsbatch.dto.Data;
+import com.inetum.clientsbatch.writer.FsyncPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteChunkItemWriterTest {
+
+    private static final String SEGMENT_PREFIX = "remote-test.txt.worker-";
+    private static final String REPORT_FILE = "remote-report.txt";
+
+    private final JobExecution jobExecution = new JobExecution(1L);
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(Path.of(REPORT_FILE));
+        for (int i = 0; i < 3; i++) {
+            Files.deleteIfExists(Path.of(SEGMENT_PREFIX + i));
+        }
+    }
+
+    private Data client(long clientId) {
+        return Data.builder()
+                .clientId(clientId).firstName("Cliente" + clientId).paternalLastName("García")
+                .maternalLastName("López").currency("USD").loanAmount(1000.0).term(12)
+                .disbursementDate(LocalDate.of(2025, 12, 20))
+                .build();
+    }
+
+    // Aprueba los clientes pares, igual que haría la API con un préstamo generado
+    private static final ItemProcessor<Data, Data> APPROVE_EVEN = data -> {
+        if (data.getClientId() % 2 == 0) {
+            data.setLoanId(data.getClientId() * 100);
+            data.setTotalInterest(50.0);
+            data.setMonthlyPayment(87.5);
+            data.setNextPaymentDate(LocalDate.of(2026, 1, 20));
+        }
+        return data;
+    };
+
+    private RemoteChunkItemWriter writer(int workers, ItemProcessor<Data, Data> processor) {
+        InMemoryChunkChannel channel = new InMemoryChunkChannel();
+        RemoteChunkItemWriter writer = new RemoteChunkItemWriter(channel, 2, 10_000);
+        for (int i = 0; i < workers; i++) {
+            writer.addLocalWorker(new ChunkWorker("local-" + i, channel.worker(), processor,
+                    SEGMENT_PREFIX + i, FsyncPolicy.NEVER));
+        }
+        return writer;
+    }
+
+    @Test
+    void testChunksAreSpreadAcrossWorkersAndReportIsComplete() throws Exception {
+        RemoteChunkItemWriter writer = writer(3, APPROVE_EVEN);
+        writer.beforeJob(jobExecution);
+        try {
+            for (long id = 1; id <= 40; id += 4) {
+                writer.write(new Chunk<>(List.of(client(id), client(id + 1), client(id + 2), client(id + 3))));
+            }
+            RemoteReportTasklet tasklet = new RemoteReportTasklet(writer, REPORT_FILE);
+            tasklet.setFsyncPolicy(FsyncPolicy.NEVER);
+            tasklet.execute(null, null);
+        } finally {
+            writer.afterJob(jobExecution);
+        }
+
+        String report = Files.readString(Path.of(REPORT_FILE), StandardCharsets.UTF_8);
+        assertTrue(report.contains("Total de registros procesados: 40"));
+        assertTrue(report.contains("Total de préstamos generados: 20"));
+        for (long id = 2; id <= 40; id += 2) {
+            assertTrue(report.contains("Cliente" + id + " "), "Falta el préstamo del cliente " + id);
+        }
+        assertFalse(report.contains("Cliente1 "), "Los no aprobados no van al reporte");
+        for (int i = 0; i < 3; i++) {
+            assertFalse(Files.exists(Path.of(SEGMENT_PREFIX + i)), "Los segmentos se borran tras la mezcla");
+        }
+    }
+
+    @Test
+    void testFilteredItemsAreNotCounted() throws Exception {
+        RemoteChunkItemWriter writer = writer(1, data -> data.getClientId() > 2 ? APPROVE_EVEN.process(data) : null);
+        writer.beforeJob(jobExecution);
+        try {
+            writer.write(new Chunk<>(List.of(client(1), client(2), client(3), client(4))));
+            RemoteChunkItemWriter.Result result = writer.finish();
+
+            assertEquals(2, result.totalRead(), "Las filas descartadas por el processor no se escriben");
+            assertEquals(1, result.totalApproved());
+            assertEquals(1, result.segments().size());
+        } finally {
+            writer.afterJob(jobExecution);
+        }
+    }
+
+    @Test
+    void testWorkerFailureFailsTheManager() {
+        RemoteChunkItemWriter writer = writer(2, data -> {
+            throw new IllegalStateException("API caída");
+        });
+        writer.beforeJob(jobExecution);
+        try {
+            IllegalStateException error = assertThrows(IllegalStateException.class, () -> {
+                for (long id = 1; id <= 20; id++) {
+                    writer.write(new Chunk<>(new ArrayList<>(List.of(client(id)))));
+                }
+                writer.finish();
+            });
+            assertTrue(error.getMessage().contains("API caída"));
+        } finally {
+            writer.afterJob(jobExecution);
+        }
+    }
+
+    @Test
+    void testOpenWithoutWorkersFails() {
+        RemoteChunkItemWriter writer = new RemoteChunkItemWriter(new InMemoryChunkChannel(), 1, 1_000);
+        assertThrows(IllegalStateException.class, () -> writer.beforeJob(jobExecution));
+        writer.afterJob(jobExecution);
+    }
+}
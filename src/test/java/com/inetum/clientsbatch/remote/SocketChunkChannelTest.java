@@ -0,0 +1,104 @@
+package com.inetum.clientsbatch.remote;
+
+import com.inetum.clientsbatch.dto.Data;
+import com.inetum.clientsbatch.writer.FsyncPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.item.Chunk;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SocketChunkChannelTest {
+
+    private static final String SEGMENT_PREFIX = "socket-test.txt.worker-";
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            Files.deleteIfExists(Path.of(SEGMENT_PREFIX + i));
+        }
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private Thread startWorker(String workerId, int port, String segmentFile) {
+        Thread thread = new Thread(() -> {
+            try {
+                new ChunkWorker(workerId, SocketChunkWorkerChannel.connect("localhost", port, 10_000),
+                        data -> {
+                            data.setLoanId(data.getClientId());
+                            return data;
+                        }, segmentFile, FsyncPolicy.NEVER).run();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, workerId);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    // Fila completa como la deja el processor: el worker formatea las fechas en su segmento
+    private static Data loan(long clientId, String firstName) {
+        return Data.builder()
+                .clientId(clientId).firstName(firstName).paternalLastName("García").maternalLastName("López")
+                .currency("USD").loanAmount(1000.0).totalInterest(50.0).term(12).monthlyPayment(87.5)
+                .disbursementDate(LocalDate.of(2025, 1, 31)).nextPaymentDate(LocalDate.of(2025, 2, 28))
+                .build();
+    }
+
+    @Test
+    void testRequestsAndResponsesTravelOverTcp() throws Exception {
+        int port = freePort();
+        Thread first = startWorker("w0", port, SEGMENT_PREFIX + 0);
+        Thread second = startWorker("w1", port, SEGMENT_PREFIX + 1);
+
+        RemoteChunkItemWriter writer = new RemoteChunkItemWriter(
+                new SocketChunkChannel(port, 2, 1, 10_000), 1, 10_000);
+        JobExecution jobExecution = new JobExecution(1L);
+        writer.beforeJob(jobExecution);
+        try {
+            for (long id = 1; id <= 10; id += 2) {
+                writer.write(new Chunk<>(List.of(loan(id, "A"), loan(id + 1, "B"))));
+            }
+            RemoteChunkItemWriter.Result result = writer.finish();
+
+            assertEquals(10, result.totalRead());
+            assertEquals(10, result.totalApproved());
+            assertEquals(2, result.segments().size(), "Un segmento por worker conectado");
+            for (Path segment : result.segments()) {
+                assertTrue(segment.isAbsolute(), "El segmento viaja con ruta absoluta");
+                assertTrue(Files.exists(segment));
+            }
+        } finally {
+            writer.afterJob(jobExecution);
+        }
+        first.join(TimeUnit.SECONDS.toMillis(5));
+        second.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(first.isAlive());
+        assertFalse(second.isAlive());
+    }
+
+    @Test
+    void testOpenFailsWhenNoWorkerConnects() throws Exception {
+        SocketChunkChannel channel = new SocketChunkChannel(freePort(), 1, 1, 200);
+        try {
+            assertThrows(IOException.class, channel::open);
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.inetum.clientsbatch.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InboxJobServerTest {
+
+    @TempDir
+    Path dir;
+
+    private InboxJobServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null && server.isRunning()) {
+            server.stop();
+        }
+    }
+
+    private JobLauncher launcher(BatchStatus status) throws Exception {
+        JobLauncher launcher = mock(JobLauncher.class);
+        when(launcher.run(any(), any())).thenAnswer(invocation -> {
+            JobExecution execution = new JobExecution(1L, invocation.getArgument(1));
+            execution.setStatus(status);
+            return execution;
+        });
+        return launcher;
+    }
+
+    private InboxJobServer server(JobLauncher launcher, List<Path> built) {
+        return new InboxJobServer(launcher, file -> {
+            built.add(file);
+            return mock(Job.class);
+        }, dir.resolve("inbox").toString(), dir.resolve("outbox").toString(), "*.csv", 2, 50);
+    }
+
+    private static void awaitFile(Path file) throws InterruptedException {
+        for (int i = 0; i < 200 && !Files.exists(file); i++) {
+            Thread.sleep(25);
+        }
+        assertTrue(Files.exists(file), "No apareció " + file);
+    }
+
+    @Test
+    void testLaunchesOneJobPerNewFileAndArchivesIt() throws Exception {
+        JobLauncher launcher = launcher(BatchStatus.COMPLETED);
+        List<Path> built = new ArrayList<>();
+        server = server(launcher, built);
+        server.start();
+
+        Path inbox = dir.resolve("inbox");
+        Files.writeString(inbox.resolve("hourly-01.csv"), "cabecera\nfila\n");
+        Files.writeString(inbox.resolve("ignorado.txt"), "no es csv");
+
+        awaitFile(inbox.resolve(InboxJobServer.PROCESSED_DIR).resolve("hourly-01.csv"));
+        assertFalse(Files.exists(inbox.resolve("hourly-01.csv")));
+        assertTrue(Files.exists(inbox.resolve("ignorado.txt")), "Solo se lanzan los ficheros del patrón");
+
+        ArgumentCaptor<JobParameters> parameters = ArgumentCaptor.forClass(JobParameters.class);
+        verify(launcher, times(1)).run(any(), parameters.capture());
+        JobParameters launched = parameters.getValue();
+        assertEquals(inbox.resolve("hourly-01.csv").toAbsolutePath().toString(), launched.getString("inputFile"));
+        assertEquals(dir.resolve("outbox").toAbsolutePath().toString(), launched.getString("outputDir"));
+        assertEquals("hourly-01-report.txt", launched.getString("reportName"));
+        assertNotNull(launched.getLong("launchTime"));
+        assertEquals(1, built.size(), "Cada fichero construye su propio job");
+        assertEquals(1, server.getLaunchedCount());
+    }
+
+    @Test
+    void testFilesPresentAtStartupAreProcessedAndFailuresArchived() throws Exception {
+        Path inbox = Files.createDirectories(dir.resolve("inbox"));
+        Files.writeString(inbox.resolve("pendiente.csv"), "cabecera\n");
+
+        server = server(launcher(BatchStatus.FAILED), new ArrayList<>());
+        server.start();
+
+        awaitFile(inbox.resolve(InboxJobServer.FAILED_DIR).resolve("pendiente.csv"));
+    }
+
+    @Test
+    void testSessionStreamsAreOpenedAndClosedWithTheServer() throws Exception {
+        ItemStream stream = mock(ItemStream.class);
+        server = server(launcher(BatchStatus.COMPLETED), new ArrayList<>());
+        server.addSessionStream(stream);
+
+        server.start();
+        verify(stream).open(any(ExecutionContext.class));
+        verify(stream, never()).close();
+
+        server.stop();
+        verify(stream).close();
+        assertFalse(server.isRunning());
+    }
+}
@@ -0,0 +1,68 @@
+package com.inetum.clientsbatch.simulation;
+
+import com.inetum.clientsbatch.dto.Data;
+import com.inetum.clientsbatch.writer.RejectedRowWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AffordabilityPreFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path rejectedFile;
+    private RejectedRowWriter rejectedRowWriter;
+    private AffordabilityPreFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        rejectedFile = tempDir.resolve("rejected.txt");
+        rejectedRowWriter = new RejectedRowWriter(rejectedFile.toString());
+        filter = new AffordabilityPreFilter(new AmortizationEngine(1.0), rejectedRowWriter);
+    }
+
+    private Data loan(double income) {
+        return Data.builder()
+                .firstName("Juan")
+                .paternalLastName("García")
+                .currencyOfIncome("USD")
+                .monthlyIncome(income)
+                .loanAmount(15000.0)
+                .currency("USD")
+                .interestRate(8.5)
+                .term(24)
+                .build();
+    }
+
+    @Test
+    void testAffordableRowPassesThrough() {
+        rejectedRowWriter.open(new ExecutionContext());
+        Data data = loan(1000);
+
+        assertSame(data, filter.process(data));
+        assertEquals(0, rejectedRowWriter.getCount());
+
+        rejectedRowWriter.close();
+    }
+
+    @Test
+    void testUnaffordableRowIsRejectedBeforeTheApi() throws Exception {
+        rejectedRowWriter.open(new ExecutionContext());
+
+        assertNull(filter.process(loan(100)), "Cuota de 681.84 con un ingreso de 100");
+        rejectedRowWriter.close();
+
+        List<String> lines = Files.readAllLines(rejectedFile, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size(), "Cabecera + una fila rechazada");
+        assertTrue(lines.get(1).startsWith("PREFILTRO;cuota 681.84 inasumible con ingreso 100.0;Juan;"));
+    }
+}
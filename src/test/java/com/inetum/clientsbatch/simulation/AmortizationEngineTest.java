@@ -0,0 +1,61 @@
+package com.inetum.clientsbatch.simulation;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmortizationEngineTest {
+
+    private final AmortizationEngine engine = new AmortizationEngine(0.4);
+
+    private Data loan(String incomeCurrency, double income, double amount, double rate, int term) {
+        return Data.builder()
+                .firstName("Juan")
+                .currencyOfIncome(incomeCurrency)
+                .monthlyIncome(income)
+                .loanAmount(amount)
+                .currency("USD")
+                .interestRate(rate)
+                .term(term)
+                .build();
+    }
+
+    @Test
+    void testMonthlyPaymentMatchesFrenchAmortization() {
+        assertEquals(681.84, engine.monthlyPayment(loan("USD", 3000, 15000, 8.5, 24)));
+        assertEquals(500.0, AmortizationEngine.monthlyPayment(12000, 0, 24), 1e-9, "Sin interés la cuota es lineal");
+    }
+
+    @Test
+    void testSimulateFillsWholeChunk() {
+        Data affordable = loan("USD", 3000, 15000, 8.5, 24);
+        Data unaffordable = loan("USD", 100, 15000, 8.5, 24);
+        Data otherCurrency = loan("EUR", 100, 15000, 8.5, 24);
+        Data incomplete = Data.builder().firstName("Ana").build();
+
+        int approved = engine.simulate(List.of(affordable, unaffordable, otherCurrency, incomplete));
+
+        assertEquals(2, approved);
+        assertEquals(681.84, affordable.getMonthlyPayment());
+        assertEquals(16364.16, affordable.getTotalPayment());
+        assertTrue(affordable.getApproved());
+        assertEquals(1364.16, affordable.getTotalInterest(), 1e-6);
+
+        assertFalse(unaffordable.getApproved());
+        assertEquals(681.84, unaffordable.getMonthlyPayment());
+        assertNull(unaffordable.getTotalInterest());
+
+        assertTrue(otherCurrency.getApproved(), "Sin tipo de cambio decide la API");
+
+        assertNull(incomplete.getMonthlyPayment());
+        assertNull(incomplete.getApproved());
+    }
+
+    @Test
+    void testInvalidRatioIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AmortizationEngine(0));
+    }
+}
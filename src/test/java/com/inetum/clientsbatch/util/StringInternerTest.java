@@ -0,0 +1,37 @@
+package com.inetum.clientsbatch.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringInternerTest {
+
+    @Test
+    void testRepeatedValuesShareInstance() {
+        StringInterner interner = new StringInterner();
+        String first = interner.intern(new String("García"));
+
+        assertSame(first, interner.intern(new String("García")));
+        assertNull(interner.intern(null));
+        assertEquals(1, interner.size());
+    }
+
+    @Test
+    void testSizeIsBoundedAndLeastRecentlyUsedIsEvicted() {
+        StringInterner interner = new StringInterner(2);
+        String juan = interner.intern(new String("Juan"));
+        interner.intern(new String("Ana"));
+        interner.intern(new String("Juan")); // Juan pasa a ser el más reciente
+        interner.intern(new String("Luis")); // sale Ana
+
+        assertEquals(2, interner.size());
+        assertSame(juan, interner.intern(new String("Juan")));
+        String ana = new String("Ana");
+        assertSame(ana, interner.intern(ana), "Ana ya no estaba retenida: se devuelve la misma cadena");
+    }
+
+    @Test
+    void testInvalidSizeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new StringInterner(0));
+    }
+}
@@ -0,0 +1,82 @@
+package com.inetum.clientsbatch.validator;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientDataValidatorTest {
+
+    private ClientDataValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new ClientDataValidator();
+    }
+
+    private Data.DataBuilder validData() {
+        return Data.builder()
+                .firstName("Juan")
+                .paternalLastName("García")
+                .maternalLastName("López")
+                .currencyOfIncome("USD")
+                .monthlyIncome(3000.0)
+                .loanAmount(15000.0)
+                .currency("USD")
+                .interestRate(8.5)
+                .term(24)
+                .disbursementDate(LocalDate.of(2025, 12, 20));
+    }
+
+    @Test
+    void testValidRow() {
+        assertNull(validator.validate(validData().build()));
+    }
+
+    @Test
+    void testMaternalLastNameIsOptional() {
+        assertNull(validator.validate(validData().maternalLastName(null).build()));
+    }
+
+    @Test
+    void testMissingRequiredFields() {
+        assertNotNull(validator.validate(validData().firstName(null).build()));
+        assertNotNull(validator.validate(validData().firstName(" ").build()));
+        assertNotNull(validator.validate(validData().paternalLastName(null).build()));
+        assertNotNull(validator.validate(validData().monthlyIncome(null).build()));
+        assertNotNull(validator.validate(validData().loanAmount(null).build()));
+        assertNotNull(validator.validate(validData().interestRate(null).build()));
+        assertNotNull(validator.validate(validData().term(null).build()));
+    }
+
+    @Test
+    void testNullDisbursementDateIsRejected() {
+        String reason = validator.validate(validData().disbursementDate(null).build());
+        assertEquals("disbursementDate obligatoria", reason);
+    }
+
+    @Test
+    void testUnsupportedCurrency() {
+        assertTrue(validator.validate(validData().currency("GBP").build()).contains("GBP"));
+        assertNotNull(validator.validate(validData().currencyOfIncome("usd").build()));
+    }
+
+    @Test
+    void testNumericRanges() {
+        assertNotNull(validator.validate(validData().monthlyIncome(0.0).build()));
+        assertNotNull(validator.validate(validData().loanAmount(-100.0).build()));
+        assertNotNull(validator.validate(validData().loanAmount(Double.NaN).build()));
+        assertNotNull(validator.validate(validData().interestRate(150.0).build()));
+        assertNotNull(validator.validate(validData().term(0).build()));
+        assertNotNull(validator.validate(validData().term(601).build()));
+    }
+
+    @Test
+    void testDateSanity() {
+        assertNotNull(validator.validate(validData().disbursementDate(LocalDate.of(1999, 12, 31)).build()));
+        assertNotNull(validator.validate(validData().disbursementDate(LocalDate.of(2101, 1, 1)).build()));
+    }
+}
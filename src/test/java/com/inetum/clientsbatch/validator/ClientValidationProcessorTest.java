@@ -0,0 +1,136 @@
+package com.inetum.clientsbatch.validator;
+
+import com.inetum.clientsbatch.dto.Data;
+import com.inetum.clientsbatch.writer.RejectedRowWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientValidationProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path rejectedFile;
+    private RejectedRowWriter rejectedRowWriter;
+    private ClientValidationProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        rejectedFile = tempDir.resolve("rejected.txt");
+        rejectedRowWriter = new RejectedRowWriter(rejectedFile.toString());
+        processor = new ClientValidationProcessor(new ClientDataValidator(), rejectedRowWriter);
+    }
+
+    private Data validData() {
+        return Data.builder()
+                .firstName("Juan")
+                .paternalLastName("García")
+                .currencyOfIncome("USD")
+                .monthlyIncome(3000.0)
+                .loanAmount(15000.0)
+                .currency("USD")
+                .interestRate(8.5)
+                .term(24)
+                .disbursementDate(LocalDate.of(2025, 12, 20))
+                .build();
+    }
+
+    @Test
+    void testValidRowPassesThrough() {
+        rejectedRowWriter.open(new ExecutionContext());
+        Data data = validData();
+
+        assertSame(data, processor.process(data));
+        assertEquals(0, rejectedRowWriter.getCount());
+
+        rejectedRowWriter.close();
+    }
+
+    @Test
+    void testInvalidRowIsFilteredAndWritten() throws Exception {
+        rejectedRowWriter.open(new ExecutionContext());
+        Data invalid = validData();
+        invalid.setFirstName("Ana");
+        invalid.setDisbursementDate(null);
+
+        assertNull(processor.process(invalid));
+        rejectedRowWriter.close();
+
+        List<String> lines = Files.readAllLines(rejectedFile, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size(), "Cabecera + una fila rechazada");
+        assertTrue(lines.get(1).startsWith("VALIDACION;disbursementDate obligatoria;Ana;"));
+    }
+
+    @Test
+    void testRejectionCarriesLatencyAndSanitizedReason() throws Exception {
+        rejectedRowWriter.open(new ExecutionContext());
+        rejectedRowWriter.reject(validData(), "PRESTAMO", "I/O error; Connection refused\nretry", 1500L);
+        rejectedRowWriter.close();
+
+        List<String> lines = Files.readAllLines(rejectedFile, StandardCharsets.UTF_8);
+        assertTrue(lines.get(0).endsWith(";disbursementDate;latenciaMs"));
+        assertEquals(2, lines.size());
+        String[] fields = lines.get(1).split(";");
+        assertEquals("PRESTAMO", fields[0]);
+        assertEquals("I/O error, Connection refused retry", fields[1]);
+        assertEquals("1500", fields[fields.length - 1]);
+        assertEquals(lines.get(0).split(";").length, fields.length);
+    }
+
+    @Test
+    void testRestartAppendsToExistingFile() throws Exception {
+        ExecutionContext context = new ExecutionContext();
+        rejectedRowWriter.open(context);
+        Data invalid = validData();
+        invalid.setTerm(0);
+        processor.process(invalid);
+        rejectedRowWriter.update(context);
+        rejectedRowWriter.close();
+
+        RejectedRowWriter restarted = new RejectedRowWriter(rejectedFile.toString());
+        restarted.open(context);
+        new ClientValidationProcessor(new ClientDataValidator(), restarted).process(invalid);
+        restarted.update(context);
+        restarted.close();
+
+        assertEquals(2L, context.getLong("rejected.count"));
+        assertEquals(3, Files.readAllLines(rejectedFile, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    void testRestartDiscardsRejectionsAfterLastCommit() throws Exception {
+        ExecutionContext context = new ExecutionContext();
+        rejectedRowWriter.open(context);
+        Data committed = validData();
+        committed.setTerm(0);
+        processor.process(committed);
+        rejectedRowWriter.update(context);
+        Data uncommitted = validData();
+        uncommitted.setFirstName("Ana");
+        uncommitted.setTerm(0);
+        processor.process(uncommitted);
+        rejectedRowWriter.close(); // fallo del chunk: la fila de Ana llegó al disco pero no al commit
+
+        RejectedRowWriter restarted = new RejectedRowWriter(rejectedFile.toString());
+        restarted.open(context);
+        new ClientValidationProcessor(new ClientDataValidator(), restarted).process(uncommitted);
+        restarted.update(context);
+        restarted.close();
+
+        List<String> lines = Files.readAllLines(rejectedFile, StandardCharsets.UTF_8);
+        assertEquals(3, lines.size(), "Cabecera + Juan + Ana una sola vez");
+        assertTrue(lines.get(1).contains(";Juan;"));
+        assertTrue(lines.get(2).contains(";Ana;"));
+        assertEquals(2L, context.getLong("rejected.count"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.inetum.clientsbatch.writer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalRowSorterTest {
+
+    private static final String PREFIX = "sorter-test.run";
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of("."))) {
+            for (Path file : files.filter(f -> f.getFileName().toString().startsWith(PREFIX)).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private List<ExternalRowSorter.Row> drain(ExternalRowSorter sorter) throws IOException {
+        List<ExternalRowSorter.Row> rows = new ArrayList<>();
+        try (ExternalRowSorter.MergeIterator merge = new ExternalRowSorter.MergeIterator(sorter.cursors())) {
+            merge.forEachRemaining(rows::add);
+        }
+        return rows;
+    }
+
+    private long runFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of("."))) {
+            return files.filter(f -> f.getFileName().toString().startsWith(PREFIX)).count();
+        }
+    }
+
+    @Test
+    void testSortsInMemoryWithinBudget() throws IOException {
+        ExternalRowSorter sorter = new ExternalRowSorter(PREFIX, 1024 * 1024, new AtomicLong());
+        sorter.add(3, "c");
+        sorter.add(1, "a");
+        sorter.add(2, "b");
+
+        assertEquals(List.of("a", "b", "c"), drain(sorter).stream().map(ExternalRowSorter.Row::line).toList());
+        assertEquals(0, sorter.runCount());
+        sorter.close();
+    }
+
+    @Test
+    void testSpillsRunsAndMergesThem() throws IOException {
+        // Presupuesto de unas pocas filas: obliga a volcar muchos runs y a compactarlos
+        AtomicLong memory = new AtomicLong();
+        ExternalRowSorter sorter = new ExternalRowSorter(PREFIX, 2_000, memory);
+        Random random = new Random(42);
+        int rows = 20_000;
+        for (int i = 0; i < rows; i++) {
+            long key = random.nextInt(1_000);
+            sorter.add(key, "fila " + key + " ñ " + i);
+        }
+        assertTrue(sorter.runCount() > 0);
+        assertTrue(sorter.runCount() < ExternalRowSorter.MAX_FAN_IN);
+
+        List<ExternalRowSorter.Row> sorted = drain(sorter);
+
+        assertEquals(rows, sorted.size());
+        for (int i = 1; i < sorted.size(); i++) {
+            assertTrue(ExternalRowSorter.ORDER.compare(sorted.get(i - 1), sorted.get(i)) <= 0);
+        }
+        assertTrue(sorted.stream().anyMatch(row -> row.line().contains("ñ")));
+
+        sorter.close();
+        assertEquals(0, runFiles());
+        assertEquals(0, memory.get());
+    }
+
+    @Test
+    void testSortableBitsKeepDoubleOrder() {
+        double[] values = {Double.NEGATIVE_INFINITY, -1e9, -2.5, -0.0, 0.0, 1e-9, 2.5, 15000.0, Double.MAX_VALUE};
+        for (int i = 1; i < values.length; i++) {
+            assertTrue(ReportSortKey.sortableBits(values[i - 1]) < ReportSortKey.sortableBits(values[i]),
+                    values[i - 1] + " < " + values[i]);
+        }
+    }
+}
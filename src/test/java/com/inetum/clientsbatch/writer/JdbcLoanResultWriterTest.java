@@ -0,0 +1,105 @@
+package com.inetum.clientsbatch.writer;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcLoanResultWriterTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:loans;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS loan_result");
+    }
+
+    private Data result(long clientId, Long loanId, boolean approved) {
+        return Data.builder()
+                .clientId(clientId).simulationId(clientId * 10).loanId(loanId).approved(approved)
+                .currency("USD").loanAmount(15000.0)
+                .build();
+    }
+
+    private List<Data> results(int count) {
+        List<Data> items = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            items.add(result(i, i % 4 == 0 ? null : (long) i * 100, i % 4 != 0));
+        }
+        return items;
+    }
+
+    @Test
+    void testMultiRowInsert() {
+        JdbcLoanResultWriter writer = new JdbcLoanResultWriter(dataSource, 7, true, true);
+        writer.beforeStep(null);
+
+        writer.write(new Chunk<>(results(20)));
+
+        assertEquals(20, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan_result", Integer.class));
+        assertEquals(15, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM loan_result WHERE loan_id IS NOT NULL", Integer.class));
+        assertEquals(20, writer.getRowsWritten());
+        assertTrue(writer.getRowsPerSecond() > 0);
+    }
+
+    @Test
+    void testJdbcBatchInsert() {
+        JdbcLoanResultWriter writer = new JdbcLoanResultWriter(dataSource, 3, false, true);
+        writer.beforeStep(null);
+
+        writer.write(new Chunk<>(results(10)));
+
+        assertEquals(10, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan_result", Integer.class));
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM loan_result WHERE simulation_id = 10");
+        assertEquals(1L, ((Number) row.get("CLIENT_ID")).longValue());
+        assertEquals(100L, ((Number) row.get("LOAN_ID")).longValue());
+        assertEquals(Boolean.TRUE, row.get("APPROVED"));
+        assertEquals("USD", row.get("CURRENCY"));
+    }
+
+    @Test
+    void testUpsertUpdatesExistingSimulation() {
+        JdbcLoanResultWriter writer = new JdbcLoanResultWriter(dataSource, 10, true, true);
+        writer.beforeStep(null);
+
+        writer.write(new Chunk<>(List.of(result(1L, null, false))));
+        writer.write(new Chunk<>(List.of(result(1L, 555L, true))));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan_result", Integer.class));
+        assertEquals(555L, jdbcTemplate.queryForObject(
+                "SELECT loan_id FROM loan_result WHERE simulation_id = 10", Long.class));
+    }
+
+    @Test
+    void testSkipsRowsWithoutSimulation() {
+        JdbcLoanResultWriter writer = new JdbcLoanResultWriter(dataSource, 10, false, true);
+        writer.beforeStep(null);
+
+        writer.write(new Chunk<>(List.of(Data.builder().clientId(1L).build())));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan_result", Integer.class));
+        assertEquals(0, writer.getRowsWritten());
+    }
+
+    @Test
+    void testInvalidBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new JdbcLoanResultWriter(dataSource, 0, true, true));
+    }
+}
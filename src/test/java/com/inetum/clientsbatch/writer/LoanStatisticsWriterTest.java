@@ -0,0 +1,129 @@
+package com.inetum.clientsbatch.writer;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanStatisticsWriterTest {
+
+    private static final String STATS_FILE = "stats-test.txt";
+
+    private LoanStatisticsWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new LoanStatisticsWriter(STATS_FILE);
+        writer.open(new ExecutionContext());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(Path.of(STATS_FILE));
+        Files.deleteIfExists(Path.of(STATS_FILE + ".tmp"));
+    }
+
+    private static StepExecution stepExecution(BatchStatus status) {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        stepExecution.setStatus(status);
+        return stepExecution;
+    }
+
+    private Data loan(String currency, Integer term, double amount, double interest, double payment) {
+        return Data.builder()
+                .loanId(1L).currency(currency).term(term)
+                .loanAmount(amount).totalInterest(interest).monthlyPayment(payment)
+                .build();
+    }
+
+    @Test
+    void testAggregatesByCurrencyAndTermBucket() {
+        writer.write(new Chunk<>(List.of(
+                loan("USD", 12, 1000.0, 100.0, 90.0),
+                loan("USD", 6, 3000.0, 200.0, 510.0),
+                loan("USD", 24, 5000.0, 700.0, 240.0),
+                loan("EUR", 60, 8000.0, 900.0, 150.0))));
+        // Las simulaciones no aprobadas no cuentan
+        writer.write(new Chunk<>(List.of(Data.builder().currency("USD").term(12).loanAmount(9999.0).build())));
+
+        assertEquals(2, writer.getCount("USD", 12));
+        assertEquals(4000.0, writer.getTotalAmount("USD", 1), 0.0001);
+        assertEquals(300.0, writer.getAverageMonthlyPayment("USD", 12), 0.0001);
+        assertEquals(1, writer.getCount("USD", 13));
+        assertEquals(1, writer.getCount("EUR", 37));
+        assertEquals(0, writer.getCount("MXN", 12));
+    }
+
+    @Test
+    void testTermBuckets() {
+        assertEquals(0, LoanStatisticsWriter.termBucket(1));
+        assertEquals(0, LoanStatisticsWriter.termBucket(12));
+        assertEquals(1, LoanStatisticsWriter.termBucket(13));
+        assertEquals(3, LoanStatisticsWriter.termBucket(60));
+        assertEquals(4, LoanStatisticsWriter.termBucket(600));
+        assertEquals(LoanStatisticsWriter.TERM_LABELS.length - 1, LoanStatisticsWriter.termBucket(null));
+    }
+
+    @Test
+    void testUnknownCurrencyAndMissingValues() {
+        writer.write(new Chunk<>(List.of(Data.builder().loanId(1L).currency("GBP").build())));
+
+        assertEquals(1, writer.getCount("GBP", null));
+        assertEquals(1, writer.getCount(null, null));
+        assertEquals(0.0, writer.getTotalAmount("GBP", null));
+    }
+
+    @Test
+    void testStateSurvivesRestart() {
+        writer.write(new Chunk<>(List.of(loan("MXN", 36, 20000.0, 3000.0, 650.0))));
+        ExecutionContext context = new ExecutionContext();
+        writer.update(context);
+
+        LoanStatisticsWriter restarted = new LoanStatisticsWriter(STATS_FILE);
+        restarted.open(context);
+        restarted.write(new Chunk<>(List.of(loan("MXN", 30, 10000.0, 1000.0, 350.0))));
+
+        assertEquals(2, restarted.getCount("MXN", 36));
+        assertEquals(30000.0, restarted.getTotalAmount("MXN", 36), 0.0001);
+        // El contexto guardado no cambia con los writes posteriores
+        assertEquals(1L, ((long[]) context.get(LoanStatisticsWriter.COUNTS_KEY))[LoanStatisticsWriter.cell("MXN", 36)]);
+    }
+
+    @Test
+    void testStatsFileIsWrittenAfterStep() throws Exception {
+        writer.write(new Chunk<>(List.of(
+                loan("USD", 12, 1000.0, 100.0, 90.0),
+                loan("EUR", 24, 2000.0, 150.0, 95.5))));
+
+        writer.afterStep(stepExecution(BatchStatus.COMPLETED));
+
+        String content = Files.readString(Path.of(STATS_FILE), StandardCharsets.UTF_8);
+        assertTrue(content.contains("Estadísticas de cartera por moneda y plazo"));
+        assertTrue(content.lines().anyMatch(line -> line.startsWith("USD        1-12       1")));
+        assertTrue(content.lines().anyMatch(line -> line.startsWith("EUR        Total      1")));
+        assertTrue(content.contains("Total de préstamos: 2"));
+    }
+
+    @Test
+    void testFailedStepKeepsPreviousStats() throws Exception {
+        Files.writeString(Path.of(STATS_FILE), "estadísticas anteriores", StandardCharsets.UTF_8);
+        writer.write(new Chunk<>(List.of(loan("USD", 12, 1000.0, 100.0, 90.0))));
+
+        writer.afterStep(stepExecution(BatchStatus.FAILED));
+
+        assertEquals("estadísticas anteriores", Files.readString(Path.of(STATS_FILE), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(Path.of(STATS_FILE + ".tmp")));
+    }
+}
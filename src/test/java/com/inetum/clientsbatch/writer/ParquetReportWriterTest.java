@@ -0,0 +1,159 @@
+package com.inetum.clientsbatch.writer;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.avro.AvroParquetReader;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.LocalInputFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParquetReportWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Data approvedLoan(long clientId, String currency) {
+        return Data.builder()
+                .clientId(clientId).firstName("Juan").paternalLastName("García").maternalLastName("López")
+                .simulationId(clientId * 10).loanId(clientId * 100).currency(currency)
+                .loanAmount(15000.0).interestRate(8.5).term(24)
+                .disbursementDate(LocalDate.of(2025, 12, 20)).nextPaymentDate(LocalDate.of(2026, 1, 20))
+                .monthlyPayment(681.84).totalPayment(16364.16).totalInterest(1364.16)
+                .build();
+    }
+
+    private void finishStep(ParquetReportWriter writer, BatchStatus status) {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+        stepExecution.setStatus(status);
+        writer.afterStep(stepExecution);
+        writer.close();
+    }
+
+    private List<GenericRecord> readAll(Path file) throws Exception {
+        List<GenericRecord> records = new ArrayList<>();
+        try (ParquetReader<GenericRecord> reader =
+                     AvroParquetReader.<GenericRecord>builder(new LocalInputFile(file))
+                             .withConf(new PlainParquetConfiguration())
+                             .build()) {
+            GenericRecord record;
+            while ((record = reader.read()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    @Test
+    void testWritesApprovedLoans() throws Exception {
+        Path file = tempDir.resolve("loans.parquet");
+        ParquetReportWriter writer = new ParquetReportWriter(file.toString(), CompressionCodecName.SNAPPY,
+                1024 * 1024, false);
+        Data rejected = Data.builder().clientId(3L).firstName("Carlos").approved(false).build();
+
+        writer.open(new ExecutionContext());
+        writer.write(new Chunk<>(List.of(approvedLoan(1L, "USD"), rejected)));
+        writer.write(new Chunk<>(List.of(approvedLoan(2L, "EUR"))));
+        writer.close();
+        assertFalse(Files.exists(file), "El fichero final solo aparece al terminar el step");
+        finishStep(writer, BatchStatus.COMPLETED);
+
+        List<GenericRecord> records = readAll(file);
+        assertEquals(2, records.size());
+        GenericRecord first = records.get(0);
+        assertEquals(1L, first.get("clientId"));
+        assertEquals(100L, first.get("loanId"));
+        assertEquals("USD", first.get("currency").toString());
+        assertEquals(ParquetReportWriter.APPROVED, first.get("status").toString());
+        assertEquals(15000.0, first.get("loanAmount"));
+        assertEquals(24, first.get("term"));
+        assertEquals((int) LocalDate.of(2025, 12, 20).toEpochDay(), first.get("disbursementDate"));
+        assertFalse(Files.exists(tempDir.resolve("loans.parquet.inprogress")));
+    }
+
+    @Test
+    void testIncludesRejectedWhenConfigured() throws Exception {
+        Path file = tempDir.resolve("all.parquet");
+        ParquetReportWriter writer = new ParquetReportWriter(file.toString(), CompressionCodecName.UNCOMPRESSED,
+                1024 * 1024, true);
+        Data rejected = Data.builder().clientId(3L).firstName("Carlos").simulationId(30L).approved(false).build();
+
+        writer.open(new ExecutionContext());
+        writer.write(new Chunk<>(List.of(approvedLoan(1L, "USD"), rejected)));
+        finishStep(writer, BatchStatus.COMPLETED);
+
+        List<GenericRecord> records = readAll(file);
+        assertEquals(2, records.size());
+        GenericRecord second = records.get(1);
+        assertEquals(ParquetReportWriter.NOT_APPROVED, second.get("status").toString());
+        assertNull(second.get("loanId"));
+        assertNull(second.get("disbursementDate"));
+    }
+
+    @Test
+    void testCurrencyIsDictionaryEncoded() throws Exception {
+        Path file = tempDir.resolve("dict.parquet");
+        ParquetReportWriter writer = new ParquetReportWriter(file.toString(), CompressionCodecName.GZIP,
+                1024 * 1024, false);
+        List<Data> items = new ArrayList<>();
+        String[] currencies = {"USD", "EUR", "MXN"};
+        for (int i = 0; i < 300; i++) {
+            items.add(approvedLoan(i + 1, currencies[i % 3]));
+        }
+
+        writer.open(new ExecutionContext());
+        writer.write(new Chunk<>(items));
+        finishStep(writer, BatchStatus.COMPLETED);
+
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(file),
+                ParquetReadOptions.builder(new PlainParquetConfiguration()).build())) {
+            ColumnChunkMetaData currency = reader.getFooter().getBlocks().get(0).getColumns().stream()
+                    .filter(column -> column.getPath().toDotString().equals("currency"))
+                    .findFirst().orElseThrow();
+            assertTrue(currency.getEncodings().contains(Encoding.PLAIN_DICTIONARY)
+                    || currency.getEncodings().contains(Encoding.RLE_DICTIONARY));
+            assertEquals(CompressionCodecName.GZIP, currency.getCodec());
+        }
+        assertEquals(300, readAll(file).size());
+    }
+
+    @Test
+    void testFailedStepKeepsPreviousFile() throws Exception {
+        Path file = tempDir.resolve("loans.parquet");
+        ParquetReportWriter first = new ParquetReportWriter(file.toString(), CompressionCodecName.SNAPPY,
+                1024 * 1024, false);
+        first.open(new ExecutionContext());
+        first.write(new Chunk<>(List.of(approvedLoan(1L, "USD"), approvedLoan(2L, "EUR"))));
+        finishStep(first, BatchStatus.COMPLETED);
+
+        ParquetReportWriter second = new ParquetReportWriter(file.toString(), CompressionCodecName.SNAPPY,
+                1024 * 1024, false);
+        second.open(new ExecutionContext());
+        second.write(new Chunk<>(List.of(approvedLoan(3L, "MXN"))));
+        finishStep(second, BatchStatus.FAILED);
+
+        List<GenericRecord> records = readAll(file);
+        assertEquals(2, records.size(), "Un step fallido no debe publicar encima del último Parquet bueno");
+        assertEquals(1L, records.get(0).get("clientId"));
+        assertFalse(Files.exists(tempDir.resolve("loans.parquet.inprogress")));
+    }
+}
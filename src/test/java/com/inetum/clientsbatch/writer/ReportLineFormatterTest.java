@@ -0,0 +1,114 @@
+package com.inetum.clientsbatch.writer;
+
+import com.inetum.clientsbatch.dto.Data;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportLineFormatterTest {
+
+    private final ReportLineFormatter formatter = new ReportLineFormatter();
+    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Formato original de ReportWriter, usado como referencia
+    private String expected(Data loan) {
+        return String.format(
+                "%-10d %-15s %-20s %-20s %-10d %-10s %-15.2f %-15.2f %-15s %-15s %-10d %-12.2f%n",
+                loan.getClientId(), loan.getFirstName(), loan.getPaternalLastName(), loan.getMaternalLastName(),
+                loan.getLoanId(), loan.getCurrency(), loan.getLoanAmount(), loan.getTotalInterest(),
+                loan.getDisbursementDate().format(dateFormatter), loan.getNextPaymentDate().format(dateFormatter),
+                loan.getTerm(), loan.getMonthlyPayment());
+    }
+
+    private String actual(Data loan) {
+        StringBuilder out = new StringBuilder();
+        formatter.appendRow(loan, out);
+        return out.toString();
+    }
+
+    private Data loan(double amount, double interest, double payment) {
+        return Data.builder()
+                .clientId(1L).firstName("Juan").paternalLastName("García").maternalLastName("López")
+                .loanId(100L).currency("USD")
+                .loanAmount(amount).totalInterest(interest).monthlyPayment(payment)
+                .disbursementDate(LocalDate.of(2025, 12, 20)).nextPaymentDate(LocalDate.of(2026, 1, 5))
+                .term(24)
+                .build();
+    }
+
+    @Test
+    void testMatchesStringFormat() {
+        Data data = loan(15000.0, 500.0, 681.84);
+        assertEquals(expected(data), actual(data));
+    }
+
+    @Test
+    void testRoundingTiesMatchFormatter() {
+        double[] values = {0.125, 0.135, 1.005, 2.675, 1.115, 0.005, 0.015, 10.345, 1234.565, 0.994999, 0.995};
+        for (double value : values) {
+            Data data = loan(value, value, value);
+            assertEquals(expected(data), actual(data), "Valor: " + value);
+        }
+    }
+
+    @Test
+    void testSpecialValuesMatchFormatter() {
+        double[] values = {0.0, -0.0, -1.5, -0.001, 1e9, 123456789012.345, Double.NaN,
+                Double.POSITIVE_INFINITY, Double.MIN_VALUE};
+        for (double value : values) {
+            Data data = loan(value, value, value);
+            assertEquals(expected(data), actual(data), "Valor: " + value);
+        }
+    }
+
+    @Test
+    void testRandomValuesMatchFormatter() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            double amount = Math.round(random.nextDouble() * 1_000_000_00) / 100.0;
+            double interest = random.nextDouble() * 100_000;
+            double payment = random.nextInt(1_000_000) / 1000.0;
+            Data data = loan(amount, interest, payment);
+            assertEquals(expected(data), actual(data));
+        }
+    }
+
+    @Test
+    void testNullsAndLongValuesMatchFormatter() {
+        Data data = loan(15000.0, 500.0, 681.84);
+        data.setMaternalLastName(null);
+        data.setTerm(null);
+        data.setTotalInterest(null);
+        data.setFirstName("Un nombre más largo que la columna");
+        data.setClientId(12345678901234L);
+        assertEquals(expected(data), actual(data));
+    }
+
+    @Test
+    void testLocaleWithCommaSeparator() {
+        Locale original = Locale.getDefault(Locale.Category.FORMAT);
+        try {
+            Locale.setDefault(Locale.Category.FORMAT, Locale.GERMANY);
+            ReportLineFormatter germanFormatter = new ReportLineFormatter();
+            Data data = loan(15000.5, 500.0, 681.84);
+            StringBuilder out = new StringBuilder();
+            germanFormatter.appendRow(data, out);
+            assertEquals(expected(data), out.toString());
+            assertTrue(out.toString().contains("15000,50"));
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, original);
+        }
+    }
+
+    @Test
+    void testAppendsToExistingContent() {
+        StringBuilder out = new StringBuilder("previo|");
+        formatter.appendRow(loan(1.0, 2.0, 3.0), out);
+        assertTrue(out.toString().startsWith("previo|1          Juan"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.inetum.clientsbatch.writer;
+
+import com.inetum.clientsbatch.dto.Data;
+import com.inetum.clientsbatch.reader.LineRangePartitioner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReportMergeTaskletTest {
+
+    private static final String REPORT_FILE = "merged-report.txt";
+    private static final String SINGLE_REPORT_FILE = "single-report.txt";
+
+    private JobExecution jobExecution;
+    private JobRepository jobRepository;
+
+    @BeforeEach
+    void setUp() {
+        jobExecution = new JobExecution(new JobInstance(1L, "importClientsJob"), 1L, new JobParameters());
+        jobRepository = mock(JobRepository.class);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (String file : List.of(REPORT_FILE, SINGLE_REPORT_FILE)) {
+            Files.deleteIfExists(Path.of(file));
+            Files.deleteIfExists(Path.of(file + ".body"));
+            Files.deleteIfExists(Path.of(file + ".tmp"));
+        }
+        for (int i = 0; i < 3; i++) {
+            Files.deleteIfExists(Path.of(REPORT_FILE + ".part-" + i));
+        }
+    }
+
+    private Data loan(long clientId, Long loanId) {
+        return Data.builder()
+                .clientId(clientId).firstName("Cliente" + clientId).paternalLastName("García")
+                .maternalLastName("López").loanId(loanId).currency("USD")
+                .loanAmount(1000.0).totalInterest(50.0)
+                .disbursementDate(LocalDate.of(2025, 12, 20)).nextPaymentDate(LocalDate.of(2026, 1, 20))
+                .term(12).monthlyPayment(87.5)
+                .build();
+    }
+
+    // Ejecuta una partición como lo haría el step: writer de segmento y afterStep
+    private StepExecution runPartition(int index, List<Data> items) throws Exception {
+        return runPartition(jobExecution, index, items);
+    }
+
+    private StepExecution runPartition(JobExecution execution, int index, List<Data> items) throws Exception {
+        StepExecution stepExecution = execution.createStepExecution("workerStep:partition" + index);
+        stepExecution.getExecutionContext().putInt(LineRangePartitioner.INDEX_KEY, index);
+        ReportWriter writer = ReportWriter.segment(REPORT_FILE + ".part-" + index);
+        writer.open(new ExecutionContext());
+        writer.write(new Chunk<>(items));
+        writer.afterStep(stepExecution);
+        writer.close();
+        return stepExecution;
+    }
+
+    private String merge() throws Exception {
+        StepExecution mergeExecution = jobExecution.createStepExecution("reportMergeStep");
+        new ReportMergeTasklet(jobRepository, "workerStep", REPORT_FILE)
+                .execute(new StepContribution(mergeExecution), new ChunkContext(new StepContext(mergeExecution)));
+        return Files.readString(Path.of(REPORT_FILE), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testSegmentsAreMergedInPartitionOrder() throws Exception {
+        // Las particiones terminan en cualquier orden
+        runPartition(2, List.of(loan(5L, 50L), loan(6L, null)));
+        runPartition(0, List.of(loan(1L, 10L), loan(2L, 20L)));
+        runPartition(1, List.of(loan(3L, null), loan(4L, 40L)));
+
+        String content = merge();
+
+        assertTrue(content.contains("Total de registros procesados: 6"));
+        assertTrue(content.contains("Total de préstamos generados: 4"));
+        assertTrue(content.contains("Simulaciones no aprobadas: 2"));
+        List<Long> ids = new ArrayList<>();
+        content.lines().filter(line -> line.matches("^\\d+ +Cliente.*"))
+                .forEach(line -> ids.add(Long.parseLong(line.substring(0, 10).trim())));
+        assertEquals(List.of(1L, 2L, 4L, 5L), ids);
+        assertTrue(content.endsWith(ReportAssembler.SEPARATOR_LINE));
+        assertFalse(Files.exists(Path.of(REPORT_FILE + ".part-0")));
+    }
+
+    @Test
+    void testMergedReportMatchesSingleStepReport() throws Exception {
+        List<Data> all = List.of(loan(1L, 10L), loan(2L, null), loan(3L, 30L), loan(4L, 40L));
+        runPartition(0, all.subList(0, 2));
+        runPartition(1, all.subList(2, 4));
+        String merged = merge();
+
+        // En otro fichero: si el step único no publicara, la comparación no podría pasar contra el propio merge
+        ReportWriter single = new ReportWriter(SINGLE_REPORT_FILE);
+        single.open(new ExecutionContext());
+        single.write(new Chunk<>(all));
+        StepExecution stepExecution = jobExecution.createStepExecution("step1");
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        single.afterStep(stepExecution);
+        single.close();
+
+        assertEquals(Files.readString(Path.of(SINGLE_REPORT_FILE), StandardCharsets.UTF_8), merged);
+    }
+
+    @Test
+    void testCompletedPartitionIsRecoveredFromRepositoryOnRestart() throws Exception {
+        runPartition(0, List.of(loan(1L, 10L)));
+
+        // Partición completada en la ejecución anterior: en esta su contexto llega vacío
+        JobExecution previousRun = new JobExecution(jobExecution.getJobInstance(), 0L, new JobParameters());
+        StepExecution previous = runPartition(previousRun, 1, List.of(loan(2L, 20L)));
+        jobExecution.createStepExecution("workerStep:partition1");
+        when(jobRepository.getLastStepExecution(any(JobInstance.class), eq("workerStep:partition1")))
+                .thenReturn(previous);
+
+        String content = merge();
+
+        assertTrue(content.contains("Total de préstamos generados: 2"));
+    }
+}
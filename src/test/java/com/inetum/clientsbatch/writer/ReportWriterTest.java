@@ -8,14 +8,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
 
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,6 +36,7 @@ class ReportWriterTest {
     private StepExecution stepExecution;
 
     private static final String REPORT_FILE = "report.txt";
+    private static final String BODY_FILE = "report.txt.body";
 
     @BeforeEach
     void setUp() {
@@ -37,6 +46,7 @@ class ReportWriterTest {
 
     @AfterEach
     void tearDown() {
+        reportWriter.close();
         deleteReportFile();
     }
 
@@ -45,6 +55,14 @@ class ReportWriterTest {
         if (file.exists()) {
             file.delete();
         }
+        File body = new File(BODY_FILE);
+        if (body.exists()) {
+            body.delete();
+        }
+        File temp = new File(REPORT_FILE + ".tmp");
+        if (temp.exists()) {
+            temp.delete();
+        }
     }
 
     @Test
@@ -378,6 +396,233 @@ class ReportWriterTest {
         assertTrue(content.contains("=".repeat(120)), "Debe contener separadores");
     }
 
+    @Test
+    void testRowsAreStreamedPerChunk() throws Exception {
+        // Arrange
+        Data loan = createTestData(1L, "Juan", "García", "López",
+                100L, "USD", 15000.0, 500.0,
+                LocalDate.of(2025, 12, 20), LocalDate.of(2026, 1, 20),
+                24, 681.84);
+        reportWriter.open(new ExecutionContext());
+
+        // Act
+        reportWriter.write(new Chunk<>(List.of(loan)));
+
+        // Assert - La fila ya está en disco antes de terminar el step
+        String body = Files.readString(Paths.get(BODY_FILE), StandardCharsets.UTF_8);
+        assertTrue(body.startsWith("1          Juan"));
+        assertFalse(new File(REPORT_FILE).exists());
+    }
+
+    @Test
+    void testReportLayoutIsUnchanged() throws Exception {
+        // Arrange
+        Data loan = createTestData(1L, "Juan", "García", "López",
+                100L, "USD", 15000.0, 500.0,
+                LocalDate.of(2025, 12, 20), LocalDate.of(2026, 1, 20),
+                24, 681.84);
+        Data rejected = Data.builder().clientId(2L).firstName("María").build();
+        reportWriter.write(new Chunk<>(List.of(loan, rejected)));
+
+        // Act
+        reportWriter.afterStep(stepExecution);
+
+        // Assert
+        String n = System.lineSeparator();
+        String separator = "=".repeat(120) + n;
+        String expected = separator + n
+                + "Total de registros procesados: 2" + n
+                + "Total de préstamos generados: 1" + n
+                + "Simulaciones no aprobadas: 1" + n + n
+                + separator
+                + String.format("%-10s %-15s %-20s %-20s %-10s %-10s %-15s %-15s %-15s %-15s %-10s %-12s%n",
+                "ID Cliente", "Nombre", "Apellido Pat.", "Apellido Mat.", "ID Préstamo", "Moneda",
+                "Monto Préstamo", "Total Interés", "Fecha Desemb.", "Próximo Pago", "Cuotas", "Monto Cuota")
+                + separator
+                + "1          Juan            García               López                100        USD        "
+                + "15000.00        500.00          20/12/2025      20/01/2026      24         681.84      " + n
+                + separator;
+        assertEquals(expected, Files.readString(Paths.get(REPORT_FILE), StandardCharsets.UTF_8));
+        assertFalse(new File(BODY_FILE).exists(), "El cuerpo temporal se borra al terminar");
+    }
+
+    @Test
+    void testRestartDiscardsUncommittedRows() throws Exception {
+        // Arrange - Primer intento: un chunk confirmado y otro sin confirmar
+        Data loan1 = createTestData(1L, "Juan", "García", "López",
+                100L, "USD", 15000.0, 500.0,
+                LocalDate.of(2025, 12, 20), LocalDate.of(2026, 1, 20),
+                24, 681.84);
+        Data loan2 = createTestData(2L, "María", "Fernández", "González",
+                200L, "EUR", 20000.0, 600.0,
+                LocalDate.of(2025, 12, 22), LocalDate.of(2026, 1, 22),
+                36, 620.50);
+        Data loan3 = createTestData(3L, "Carlos", "Rodríguez", "Martínez",
+                300L, "MXN", 50000.0, 1200.0,
+                LocalDate.of(2025, 12, 25), LocalDate.of(2026, 1, 25),
+                48, 1250.75);
+
+        ExecutionContext context = new ExecutionContext();
+        reportWriter.open(context);
+        reportWriter.write(new Chunk<>(List.of(loan1)));
+        reportWriter.update(context);
+        reportWriter.write(new Chunk<>(List.of(loan2))); // falla antes del commit
+        reportWriter.close();
+
+        // Act - Reinicio desde el último commit
+        reportWriter = new ReportWriter();
+        reportWriter.open(context);
+        reportWriter.write(new Chunk<>(List.of(loan2, loan3)));
+        reportWriter.afterStep(stepExecution);
+
+        // Assert
+        String content = Files.readString(Paths.get(REPORT_FILE), StandardCharsets.UTF_8);
+        assertTrue(content.contains("Total de registros procesados: 3"));
+        assertTrue(content.contains("Total de préstamos generados: 3"));
+        assertEquals(content.indexOf("María"), content.lastIndexOf("María"), "María debe aparecer una sola vez");
+        assertTrue(content.indexOf("Juan") < content.indexOf("María"));
+        assertTrue(content.indexOf("María") < content.indexOf("Carlos"));
+    }
+
+    @Test
+    void testBodyIsKeptWhenStepFails() throws Exception {
+        // Arrange
+        Data loan = createTestData(1L, "Juan", "García", "López",
+                100L, "USD", 15000.0, 500.0,
+                LocalDate.of(2025, 12, 20), LocalDate.of(2026, 1, 20),
+                24, 681.84);
+        Files.writeString(Paths.get(REPORT_FILE), "reporte anterior", StandardCharsets.UTF_8);
+        reportWriter.write(new Chunk<>(List.of(loan)));
+        org.mockito.Mockito.when(stepExecution.getStatus()).thenReturn(BatchStatus.FAILED);
+
+        // Act
+        reportWriter.afterStep(stepExecution);
+
+        // Assert
+        assertTrue(new File(BODY_FILE).exists(), "El cuerpo se conserva para reiniciar");
+        assertEquals("reporte anterior", Files.readString(Paths.get(REPORT_FILE), StandardCharsets.UTF_8),
+                "Un step fallido no sustituye el último reporte bueno");
+    }
+
+    @Test
+    void testConcurrentWritesAreMergedByClientId() throws Exception {
+        ReportWriter concurrentWriter = new ReportWriter(REPORT_FILE, true);
+        int threads = 4;
+        int chunksPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int c = 0; c < chunksPerThread; c++) {
+                    // Los clientId se reparten entrelazados entre hilos
+                    long clientId = (long) c * threads + thread + 1;
+                    Data approved = createTestData(clientId, "Cliente" + clientId, "García", "López",
+                            clientId * 10, "USD", 1000.0, 50.0,
+                            LocalDate.of(2025, 12, 20), LocalDate.of(2026, 1, 20), 12, 87.5);
+                    Data notApproved = Data.builder().clientId(clientId + 100_000).build();
+                    concurrentWriter.write(new Chunk<>(List.of(approved, notApproved)));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        concurrentWriter.afterStep(stepExecution);
+        concurrentWriter.close();
+
+        String content = Files.readString(Paths.get(REPORT_FILE), StandardCharsets.UTF_8);
+        int total = threads * chunksPerThread;
+        assertTrue(content.contains("Total de registros procesados: " + total * 2));
+        assertTrue(content.contains("Total de préstamos generados: " + total));
+
+        List<Long> ids = content.lines()
+                .filter(line -> line.matches("^\\d+ +Cliente.*"))
+                .map(line -> Long.parseLong(line.substring(0, 10).trim()))
+                .toList();
+        assertEquals(total, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i + 1L, ids.get(i));
+        }
+    }
+
+    @Test
+    void testSortedReportSpillsAndKeepsOrder() throws Exception {
+        // Presupuesto mínimo: cada pocas filas se vuelca un run a disco
+        ReportWriter sortedWriter = new ReportWriter(REPORT_FILE, false, ReportSortKey.LOAN_AMOUNT, 4_096);
+        sortedWriter.open(new ExecutionContext());
+        Random random = new Random(7);
+        int rows = 500;
+        for (int c = 0; c < rows / 5; c++) {
+            List<Data> items = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                long clientId = c * 5L + i + 1;
+                items.add(createTestData(clientId, "Cliente" + clientId, "García", "López",
+                        clientId * 10, "USD", (double) random.nextInt(100_000), 50.0,
+                        LocalDate.of(2025, 12, 20), LocalDate.of(2026, 1, 20), 12, 87.5));
+            }
+            sortedWriter.write(new Chunk<>(items));
+        }
+
+        sortedWriter.afterStep(stepExecution);
+        sortedWriter.close();
+
+        String content = Files.readString(Paths.get(REPORT_FILE), StandardCharsets.UTF_8);
+        assertTrue(content.contains("Total de préstamos generados: " + rows));
+        List<Double> amounts = content.lines()
+                .filter(line -> line.matches("^\\d+ +Cliente.*"))
+                .map(line -> Double.parseDouble(line.substring(91, 106).trim().replace(',', '.')))
+                .toList();
+        assertEquals(rows, amounts.size());
+        for (int i = 1; i < amounts.size(); i++) {
+            assertTrue(amounts.get(i - 1) <= amounts.get(i));
+        }
+        try (var files = Files.list(Paths.get("."))) {
+            assertTrue(files.noneMatch(f -> f.getFileName().toString().startsWith(BODY_FILE + ".run-")));
+        }
+    }
+
+    @Test
+    void testReportIsPublishedFromTempFile() throws Exception {
+        // Reporte anterior y un temporal huérfano de una ejecución caída
+        Files.writeString(Paths.get(REPORT_FILE), "reporte anterior");
+        Files.writeString(Paths.get(REPORT_FILE + ".tmp"), "a medias");
+        reportWriter.setFsyncPolicy(FsyncPolicy.PER_CHUNK);
+        reportWriter.open(new ExecutionContext());
+        reportWriter.write(new Chunk<>(List.of(createTestData(1L, "Juan", "García", "López",
+                100L, "USD", 15000.0, 500.0, LocalDate.of(2025, 12, 20), LocalDate.of(2026, 1, 20),
+                24, 681.84))));
+
+        // Hasta el final del step el reporte publicado sigue siendo el anterior
+        assertEquals("reporte anterior", Files.readString(Paths.get(REPORT_FILE)));
+
+        reportWriter.afterStep(stepExecution);
+
+        String content = Files.readString(Paths.get(REPORT_FILE), StandardCharsets.UTF_8);
+        assertTrue(content.contains("Total de préstamos generados: 1"));
+        assertFalse(Files.exists(Paths.get(REPORT_FILE + ".tmp")));
+    }
+
+    @Test
+    void testReportIsWrittenToOutputDirectory() throws Exception {
+        Path directory = Paths.get("target", "report-out", "nested");
+        ReportWriter writer = new ReportWriter(directory.resolve("custom.txt").toString());
+        writer.setFsyncPolicy(FsyncPolicy.NEVER);
+        writer.write(new Chunk<>(List.of(createTestData(1L, "Juan", "García", "López",
+                100L, "USD", 15000.0, 500.0, LocalDate.of(2025, 12, 20), LocalDate.of(2026, 1, 20),
+                24, 681.84))));
+
+        writer.afterStep(stepExecution);
+        writer.close();
+
+        assertTrue(Files.readString(directory.resolve("custom.txt"), StandardCharsets.UTF_8)
+                .contains("Total de préstamos generados: 1"));
+        Files.delete(directory.resolve("custom.txt"));
+    }
+
     private Data createTestData(Long clientId, String firstName, String paternalLastName,
                                 String maternalLastName, Long loanId, String currency,
                                 Double loanAmount, Double totalInterest,